@@ -0,0 +1,52 @@
+package gmail.pvbemmelen62.delaunay.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.test.Points.*;
+
+/**
+ * Time to triangulate numPoints points. The score is per triangulation;
+ * divide it, and gc.alloc.rate.norm of -prof gc , by numPoints for the
+ * numbers per point.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value=1, jvmArgsAppend={"-Xmx12g"})
+@Warmup(iterations=2)
+@Measurement(iterations=3)
+public class ConstructionBenchmark {
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  public int numPoints;
+  @Param({"UNIFORM", "CLUSTERED", "GRID", "CIRCLE", "NEAR_COLLINEAR"})
+  public Distribution distribution;
+  @Param({"HISTORY_DAG", "WALK", "HIERARCHY", "DIVIDE_AND_CONQUER"})
+  public String algorithm;
+
+  private Coordinates coordinates;
+  private Triangulator triangulator;
+
+  @Setup
+  public void setup() {
+    coordinates = Coordinates.of(
+        distribution.create(numPoints, new Random(0L)));
+    if(algorithm.equals("DIVIDE_AND_CONQUER")) {
+      triangulator = new DivideAndConquerTriangulator();
+    }
+    else {
+      triangulator = new IncrementalTriangulator(
+          LocationMode.valueOf(algorithm));
+    }
+  }
+  @Benchmark
+  public Dcel triangulate() {
+    return triangulator.triangulate(coordinates);
+  }
+}
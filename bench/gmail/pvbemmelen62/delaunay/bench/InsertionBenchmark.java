@@ -0,0 +1,70 @@
+package gmail.pvbemmelen62.delaunay.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.test.Points.*;
+
+/**
+ * Time to insert batchSize points into a triangulation of numPoints points
+ * of the same distribution, one by one in arrival order with
+ * DelaunayTriangulation.insert(double, double) , or at once with
+ * insert(double[], double[]) , which inserts in Hilbert curve order. The
+ * score is per batch; divide it by batchSize for the time per point.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value=1, jvmArgsAppend={"-Xmx12g"})
+@Warmup(iterations=2)
+@Measurement(iterations=5)
+public class InsertionBenchmark {
+
+  @Param({"100000"})
+  public int numPoints;
+  @Param({"10000", "100000", "1000000"})
+  public int batchSize;
+  @Param({"UNIFORM", "CLUSTERED"})
+  public Distribution distribution;
+  @Param({"WALK", "HIERARCHY"})
+  public LocationMode locationMode;
+
+  private Point[] points;
+  private double[] xs;
+  private double[] ys;
+  private DelaunayTriangulation dt;
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    Point[] all = distribution.create(numPoints+batchSize, new Random(0L));
+    points = Arrays.copyOf(all, numPoints);
+    xs = new double[batchSize];
+    ys = new double[batchSize];
+    for(int k=0; k<batchSize; ++k) {
+      xs[k] = all[numPoints+k].x;
+      ys[k] = all[numPoints+k].y;
+    }
+  }
+  @Setup(Level.Invocation)
+  public void setupInvocation() {
+    Options options = new Options();
+    options.locationMode = locationMode;
+    dt = new DelaunayTriangulation(points, options);
+  }
+  @Benchmark
+  public DelaunayTriangulation sequential() {
+    for(int k=0; k<xs.length; ++k) {
+      dt.insert(xs[k], ys[k]);
+    }
+    return dt;
+  }
+  @Benchmark
+  public DelaunayTriangulation batch() {
+    dt.insert(xs, ys);
+    return dt;
+  }
+}
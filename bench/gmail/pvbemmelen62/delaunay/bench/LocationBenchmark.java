@@ -0,0 +1,89 @@
+package gmail.pvbemmelen62.delaunay.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
+import gmail.pvbemmelen62.delaunay.dcel.Locator.*;
+import gmail.pvbemmelen62.delaunay.test.*;
+import gmail.pvbemmelen62.delaunay.test.Points.*;
+
+/**
+ * Time per point of locating QUERIES random points in the history DAG of
+ * numPoints points, kept whole or pruned, and of finding their face from
+ * there; gc.alloc.rate.norm of -prof gc is per query as well. locate is
+ * reported in queries per second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value=1, jvmArgsAppend={"-Xmx12g"})
+@Warmup(iterations=3)
+@Measurement(iterations=5)
+public class LocationBenchmark {
+
+  public static final int QUERIES = 1 << 12;
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  public int numPoints;
+  @Param({"UNIFORM", "CLUSTERED", "GRID", "CIRCLE", "NEAR_COLLINEAR"})
+  public Distribution distribution;
+  @Param({"KEEP", "PRUNE"})
+  public Retention retention;
+
+  private DelaunayTriangulation dt;
+  private PointLocationStructure pls;
+  private Descent descent = new Descent();
+  private Location location = new Location();
+  /** Query k is at (queries[2*k],queries[2*k+1]) . */
+  private double[] queries;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0L);
+    Point[] points = distribution.create(numPoints, random);
+    Options options = new Options();
+    options.retention = retention;
+    dt = new DelaunayTriangulation(points, options);
+    pls = dt.getPointLocationStructure();
+    dt.getLocator();
+    queries = Benchmarks.queryPoints(points, QUERIES, random);
+  }
+  @Benchmark
+  @OperationsPerInvocation(QUERIES)
+  public void findContainingLeafNodes(Blackhole bh) {
+    for(int k=0; k<queries.length; k+=2) {
+      bh.consume(pls.findContainingLeafNodes(queries[k], queries[k+1]));
+    }
+  }
+  @Benchmark
+  @OperationsPerInvocation(QUERIES)
+  public void findContainingLeafNodesDescent(Blackhole bh) {
+    for(int k=0; k<queries.length; k+=2) {
+      bh.consume(pls.findContainingLeafNodes(queries[k], queries[k+1],
+          descent));
+    }
+  }
+  @Benchmark
+  @OperationsPerInvocation(QUERIES)
+  public void findContainingHalfEdge(Blackhole bh) {
+    for(int k=0; k<queries.length; k+=2) {
+      bh.consume(dt.findContainingHalfEdge(queries[k], queries[k+1],
+          descent));
+    }
+  }
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(QUERIES)
+  public void locate(Blackhole bh) {
+    for(int k=0; k<queries.length; k+=2) {
+      bh.consume(dt.locate(queries[k], queries[k+1], location).kind);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package gmail.pvbemmelen62.delaunay.bench;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.test.*;
+import gmail.pvbemmelen62.delaunay.test.Points.*;
+
+/**
+ * Time per call of the predicates, on CALLS random quadruples of the points,
+ * so that near-degenerate distributions show the cost of the exact stages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value=1, jvmArgsAppend={"-Xmx12g"})
+@Warmup(iterations=3)
+@Measurement(iterations=5)
+public class PredicatesBenchmark {
+
+  public static final int CALLS = 1 << 12;
+
+  @Param({"1000", "10000", "100000", "1000000", "10000000"})
+  public int numPoints;
+  @Param({"UNIFORM", "CLUSTERED", "GRID", "CIRCLE", "NEAR_COLLINEAR"})
+  public Distribution distribution;
+
+  private Point[] points;
+  private Coordinates coordinates;
+  /** Quadruples {a,b,c,d} with a,b,c in -z direction. */
+  private int[] quads;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0L);
+    points = distribution.create(numPoints, random);
+    coordinates = Coordinates.of(points);
+    quads = Benchmarks.clockwiseQuads(points, CALLS, random);
+  }
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public void inCircle(Blackhole bh) {
+    for(int k=0; k<quads.length; k+=4) {
+      bh.consume(Circle.inCircle(points[quads[k]], points[quads[k+1]],
+          points[quads[k+2]], points[quads[k+3]]));
+    }
+  }
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public void coordinatesIncircle(Blackhole bh) {
+    for(int k=0; k<quads.length; k+=4) {
+      bh.consume(coordinates.incircle(quads[k], quads[k+1], quads[k+2],
+          quads[k+3]));
+    }
+  }
+  @Benchmark
+  @OperationsPerInvocation(CALLS)
+  public void getOrientation(Blackhole bh) {
+    for(int k=0; k<quads.length; k+=4) {
+      bh.consume(Triangle.getOrientation(points[quads[k]],
+          points[quads[k+1]], points[quads[k+3]]));
+    }
+  }
+}
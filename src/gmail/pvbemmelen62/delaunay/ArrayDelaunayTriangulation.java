@@ -0,0 +1,148 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+
+/**
+ * Delaunay triangulation of fixed points, calculated by the algorithm of
+ * DelaunayTriangulation with LocationMode.HISTORY_DAG, but in an ArrayDcel
+ * instead of a Dcel, to keep the number of heap objects independent of the
+ * number of points. The history DAG is released once the triangulation is
+ * done. Not a DelaunayTriangulation: the ArrayDcel cannot grow, so there is
+ * no insert, remove or move, and no Dcel to locate in.
+ */
+public class ArrayDelaunayTriangulation {
+
+  protected Coordinates coordinates;
+  protected int iLargest;
+  protected PointLocationStructure pls;
+  protected ArrayDcel arrayDcel;
+  /** Work stack of legalizeEdges, as in DelaunayTriangulation, of
+   *  halfedges of arrayDcel. */
+  private int[] legalizeStack = new int[16];
+  private int legalizeStackSize;
+  /** Scratch space of flipEdge. */
+  private int[] flipTri0 = new int[3];
+  private int[] flipTri1 = new int[3];
+
+  /**
+   * Calculates the Delaunay triangulation.
+   * @param points The points for which to create the triangulation.
+   */
+  public ArrayDelaunayTriangulation(Point[] points) {
+    this(Coordinates.of(points));
+  }
+  /**
+   * Calculates the Delaunay triangulation, reading the coordinates in place.
+   * @param coordinates The points for which to create the triangulation.
+   */
+  public ArrayDelaunayTriangulation(Coordinates coordinates) {
+    this.coordinates = coordinates;
+    iLargest = coordinates.findLargest();
+    triangulate();
+  }
+  public ArrayDcel getArrayDcel() {
+    return arrayDcel;
+  }
+  protected void triangulate() {
+    Long seed = 0L;
+    Random random = new Random(seed);
+    int[] permutation = Util.permutation(random, 0, coordinates.size()-1);
+    pls = new PointLocationStructure(coordinates, iLargest);
+    Descent descent = new Descent();
+    int[] tri = new int[3];
+    int[] tri0 = new int[3];
+    int[] tri1 = new int[3];
+    arrayDcel = new ArrayDcel(coordinates, iLargest);
+    int h_2L = arrayDcel.getHalfEdge(-2, iLargest);
+    arrayDcel.setFaceNode(ArrayDcel.face(h_2L), pls.top);
+    for(int i=0; i<permutation.length; ++i) {
+      int pointIndex = permutation[i];
+      if(pointIndex==iLargest) {
+        continue;
+      }
+      int numNodes = pls.findContainingLeafNodes(coordinates.x(pointIndex),
+          coordinates.y(pointIndex), descent);
+      if(numNodes==1) {
+        int node = descent.leaves[0];
+        pls.getTriangle(node, tri);
+        pls.splitContainingLeafNode(node, pointIndex);
+        int h30 = arrayDcel.splitTriangle(tri, pointIndex);
+        int h31 = arrayDcel.twin(ArrayDcel.prev(h30));
+        int h32 = ArrayDcel.next(arrayDcel.twin(h30));
+        arrayDcel.setFaceNode(ArrayDcel.face(h30), pls.child(node, 0));
+        arrayDcel.setFaceNode(ArrayDcel.face(h31), pls.child(node, 1));
+        arrayDcel.setFaceNode(ArrayDcel.face(h32), pls.child(node, 2));
+        pushLegalize(ArrayDcel.next(h32)); // {i2,i0}
+        pushLegalize(ArrayDcel.next(h31)); // {i1,i2}
+        pushLegalize(ArrayDcel.next(h30)); // {i0,i1}
+        legalizeEdges();
+      }
+      else { // numNodes==2
+        int node0 = descent.leaves[0];
+        int node1 = descent.leaves[1];
+        pls.getTriangle(node0, tri0);
+        pls.getTriangle(node1, tri1);
+        int i4 = pointIndex;
+        pls.splitContainingLeafNodes(node0, node1, i4);
+        int h04 = arrayDcel.splitTriangles(tri0, tri1, i4);
+        arrayDcel.setFaceNode(ArrayDcel.face(h04),
+            pls.child(node0, 0)); // {i0,i4,i2}
+        int h41 = ArrayDcel.next(arrayDcel.twin(ArrayDcel.next(h04)));
+        arrayDcel.setFaceNode(ArrayDcel.face(h41),
+            pls.child(node0, 1)); // {i4,i1,i2}
+        int h14 = arrayDcel.twin(h41);
+        arrayDcel.setFaceNode(ArrayDcel.face(h14),
+            pls.child(node1, 0)); // {i1,i4,i3}
+        int h40 = arrayDcel.twin(h04);
+        arrayDcel.setFaceNode(ArrayDcel.face(h40),
+            pls.child(node1, 1)); // {i4,i0,i3}
+        pushLegalize(ArrayDcel.next(h40)); // {i0,i3}
+        pushLegalize(ArrayDcel.prev(h14)); // {i3,i1}
+        pushLegalize(ArrayDcel.next(h41)); // {i1,i2}
+        pushLegalize(ArrayDcel.prev(h04)); // {i2,i0}
+        legalizeEdges();
+      }
+    }
+    pls = null;
+    arrayDcel.releaseFaceNodes();
+  }
+  /** As DelaunayTriangulation.pushLegalize(HalfEdge) . */
+  protected void pushLegalize(int h) {
+    if(legalizeStackSize==legalizeStack.length) {
+      legalizeStack = Arrays.copyOf(legalizeStack, 2*legalizeStackSize);
+    }
+    legalizeStack[legalizeStackSize++] = h;
+  }
+  /**
+   * As DelaunayTriangulation.legalizeEdges(Dcel) . A flip overwrites the
+   * two triangles of the flipped edge only, so the halfedges still on the
+   * stack keep their edge.
+   */
+  protected void legalizeEdges() {
+    while(legalizeStackSize>0) {
+      int h = legalizeStack[--legalizeStackSize];
+      if(arrayDcel.isLegal(h) || !arrayDcel.swapIsConvex(h)) {
+        continue;
+      }
+      int hNew = flipEdge(h);
+      pushLegalize(ArrayDcel.next(hNew));
+      pushLegalize(ArrayDcel.prev(arrayDcel.twin(hNew)));
+    }
+  }
+  protected int flipEdge(int h) {
+    int node0 = arrayDcel.getFaceNode(ArrayDcel.face(h));
+    int node1 = arrayDcel.getFaceNode(ArrayDcel.face(arrayDcel.twin(h)));
+    int hNew = arrayDcel.flip(h);
+    int t0 = ArrayDcel.face(hNew);
+    int t1 = ArrayDcel.face(arrayDcel.twin(hNew));
+    arrayDcel.calcTriangle(t0, flipTri0);
+    arrayDcel.calcTriangle(t1, flipTri1);
+    int nodeNew0 = pls.flipEdge(node0, node1, flipTri0, flipTri1);
+    arrayDcel.setFaceNode(t0, nodeNew0);
+    arrayDcel.setFaceNode(t1, nodeNew0+1);
+    return hNew;
+  }
+}
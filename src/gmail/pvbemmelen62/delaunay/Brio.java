@@ -0,0 +1,50 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+/**
+ * Biased randomized insertion order: every point is put in the last round
+ * with probability 1/2, of the remaining points every point is put in the
+ * round before that with probability 1/2, and so on. The rounds are inserted
+ * from first to last, and within a round the points are in Hilbert curve
+ * order. This keeps the expected cost of randomized incremental construction,
+ * while consecutive points lie near each other.
+ * @see Amenta, Choi, Rote - Incremental constructions con BRIO, 2003
+ */
+public class Brio {
+
+  private static final int MAX_ROUNDS = 64;
+
+  /** Returns indices into points, in biased randomized insertion order. */
+  public static int[] order(Coordinates coordinates, Random random) {
+    int n = coordinates.size();
+    byte[] rounds = new byte[n];
+    int[] counts = new int[MAX_ROUNDS+1];
+    for(int i=0; i<n; ++i) {
+      // rounds[i]==0 : last round.
+      int r = 0;
+      while(r < MAX_ROUNDS-1 && random.nextBoolean()) {
+        ++r;
+      }
+      rounds[i] = (byte)r;
+      ++counts[MAX_ROUNDS-1-r];
+    }
+    // starts[k] : start of round with rounds[i]==MAX_ROUNDS-1-k .
+    int[] starts = new int[MAX_ROUNDS+1];
+    for(int k=0; k<MAX_ROUNDS; ++k) {
+      starts[k+1] = starts[k] + counts[k];
+    }
+    int[] order = new int[n];
+    int[] fill = Arrays.copyOf(starts, MAX_ROUNDS);
+    for(int i=0; i<n; ++i) {
+      order[fill[MAX_ROUNDS-1-rounds[i]]++] = i;
+    }
+    MyRect rect = MyRect.fromCoordinates(coordinates);
+    for(int k=0; k<MAX_ROUNDS; ++k) {
+      if(counts[k] > 1) {
+        HilbertCurve.sort(coordinates, rect, order, starts[k], starts[k+1]);
+      }
+    }
+    return order;
+  }
+}
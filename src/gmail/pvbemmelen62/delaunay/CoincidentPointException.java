@@ -0,0 +1,23 @@
+package gmail.pvbemmelen62.delaunay;
+
+/**
+ * Thrown by DelaunayTriangulation when a point would be put on a point of
+ * the triangulation, which the triangulation does not allow.
+ */
+public class CoincidentPointException extends IllegalStateException {
+
+  private static final long serialVersionUID = 1L;
+
+  private int pointIndex;
+
+  /** @param pointIndex the point of the triangulation that is coincided
+   *    with. */
+  public CoincidentPointException(double x, double y, int pointIndex) {
+    super("Point " + x + "," + y + " coincides with point " + pointIndex);
+    this.pointIndex = pointIndex;
+  }
+  /** The point of the triangulation that is coincided with. */
+  public int getPointIndex() {
+    return pointIndex;
+  }
+}
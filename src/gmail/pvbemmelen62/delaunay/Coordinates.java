@@ -0,0 +1,372 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+/**
+ * Coordinates of the points to triangulate, read in place from primitive
+ * arrays: either parallel arrays xs and ys, or one interleaved array
+ * {x0,y0,x1,y1,..} . Points are identified by their index, as in a Point[] .
+ * Also holds lift(i), being x*x+y*y of point i, for the incircle test.
+ * Points may be appended by add(double, double) , which first copies the
+ * points into arrays of its own.
+ * <p>
+ * Coordinates created by ofInts hold integer coordinates, of absolute value
+ * below INT_BOUND, in int arrays and without lifts, so in a third of the
+ * space. Their predicates are exact in long and 128-bit integer arithmetic,
+ * without filter; for example for survey data in whole millimetres.
+ */
+public final class Coordinates {
+
+  private static final double EPSILON = Math.ulp(1.0) / 2;
+  /** Error bound of incircle(int, int, int, int) , see there. */
+  private static final double LIFTED_INCIRCLE_BOUND =
+      (8 + 64*EPSILON) * EPSILON;
+  /**
+   * Bound on the absolute value of integer coordinates: differences are
+   * below 2^30, lifts and 2 by 2 minors of differences below 2^61, so that
+   * the incircle determinant is below 2^124 in absolute value.
+   */
+  public static final int INT_BOUND = 1 << 29;
+
+  private double[] xs;
+  private double[] ys;
+  private int yOffset;
+  private int stride;
+  private int size;
+  /** lifts[0..size-1] ; its length is the capacity for add . */
+  private double[] lifts;
+  /** Whether xs and ys, or intXs and intYs, are owned by this Coordinates,
+   *  so may be written. */
+  private boolean owned;
+  /** Integer coordinates, if created by ofInts, else null; xs, ys and lifts
+   *  are then null. Their length is the capacity for add . */
+  private int[] intXs;
+  private int[] intYs;
+
+  /**
+   * Coordinates with point i at (xs[i],ys[i]) ; the arrays are not copied,
+   * and must not change while in use.
+   */
+  public Coordinates(double[] xs, double[] ys) {
+    this(xs, ys, 0, 1, xs.length);
+    if(xs.length!=ys.length) {
+      throw new IllegalArgumentException("xs.length: " + xs.length
+          + ", ys.length: " + ys.length);
+    }
+  }
+  private Coordinates(double[] xs, double[] ys, int yOffset, int stride,
+      int size) {
+    this.xs = xs;
+    this.ys = ys;
+    this.yOffset = yOffset;
+    this.stride = stride;
+    this.size = size;
+    lifts = new double[size];
+    for(int i=0; i<size; ++i) {
+      double x = x(i);
+      double y = y(i);
+      lifts[i] = x*x + y*y;
+    }
+  }
+  /**
+   * Coordinates with point i at (xy[2*i],xy[2*i+1]) ; the array is not
+   * copied, and must not change while in use.
+   */
+  public static Coordinates interleaved(double[] xy) {
+    if(xy.length%2!=0) {
+      throw new IllegalArgumentException("xy.length: " + xy.length);
+    }
+    return new Coordinates(xy, xy, 1, 2, xy.length/2);
+  }
+  /**
+   * Integer coordinates with point i at (xs[i],ys[i]) ; the arrays are not
+   * copied, and must not change while in use.
+   * @throws IllegalArgumentException if a coordinate is not below INT_BOUND
+   *   in absolute value.
+   */
+  public static Coordinates ofInts(int[] xs, int[] ys) {
+    if(xs.length!=ys.length) {
+      throw new IllegalArgumentException("xs.length: " + xs.length
+          + ", ys.length: " + ys.length);
+    }
+    for(int i=0; i<xs.length; ++i) {
+      if(!isInt(xs[i]) || !isInt(ys[i])) {
+        throw new IllegalArgumentException("Point " + i + ": " + xs[i]
+            + "," + ys[i] + " not below INT_BOUND");
+      }
+    }
+    Coordinates c = new Coordinates(null, null, 0, 1, 0);
+    c.intXs = xs;
+    c.intYs = ys;
+    c.size = xs.length;
+    c.lifts = null;
+    return c;
+  }
+  /** Whether v is an integer below INT_BOUND in absolute value. */
+  private static boolean isInt(double v) {
+    return v==Math.rint(v) && Math.abs(v)<INT_BOUND;
+  }
+  /** Whether the coordinates are integers, created by ofInts. */
+  public boolean isInteger() {
+    return intXs!=null;
+  }
+  /** Coordinates of points, copied into parallel arrays. */
+  public static Coordinates of(Point[] points) {
+    double[] xs = new double[points.length];
+    double[] ys = new double[points.length];
+    for(int i=0; i<points.length; ++i) {
+      xs[i] = points[i].x;
+      ys[i] = points[i].y;
+    }
+    return new Coordinates(xs, ys);
+  }
+  public int size() {
+    return size;
+  }
+  /**
+   * Appends point (x,y) and returns its index. The first call copies the
+   * points into parallel arrays owned by this Coordinates, so that the
+   * arrays passed in are never written; those grow by doubling.
+   * Not thread-safe.
+   * @throws IllegalArgumentException if isInteger() and (x,y) is not a
+   *   point of integers below INT_BOUND.
+   */
+  public int add(double x, double y) {
+    if(intXs!=null) {
+      checkInt(x, y);
+      if(!owned || size==intXs.length) {
+        copyInts(Math.max(16, 2*size));
+      }
+      intXs[size] = (int)x;
+      intYs[size] = (int)y;
+      return size++;
+    }
+    if(!owned || size==lifts.length) {
+      copy(Math.max(16, 2*size));
+    }
+    int i = size;
+    xs[i] = x;
+    ys[i] = y;
+    lifts[i] = x*x + y*y;
+    size = i+1;
+    return i;
+  }
+  /**
+   * Drops the points from index size on, added by add; the arrays keep
+   * their length.
+   */
+  public void truncate(int size) {
+    if(size<0 || size>this.size) {
+      throw new IndexOutOfBoundsException("size: " + size + ", was: "
+          + this.size);
+    }
+    this.size = size;
+  }
+  /**
+   * Sets point i to (x,y) . As add, the first call copies the points, so
+   * that the arrays passed in are never written. Not thread-safe.
+   * @throws IllegalArgumentException as add.
+   */
+  public void set(int i, double x, double y) {
+    if(i<0 || i>=size) {
+      throw new IndexOutOfBoundsException("i: " + i + ", size: " + size);
+    }
+    if(intXs!=null) {
+      checkInt(x, y);
+      if(!owned) {
+        copyInts(size);
+      }
+      intXs[i] = (int)x;
+      intYs[i] = (int)y;
+      return;
+    }
+    if(!owned) {
+      copy(size);
+    }
+    xs[i] = x;
+    ys[i] = y;
+    lifts[i] = x*x + y*y;
+  }
+  /** Copies the points into parallel arrays of length capacity. */
+  private void copy(int capacity) {
+    double[] xsNew = new double[capacity];
+    double[] ysNew = new double[capacity];
+    for(int i=0; i<size; ++i) {
+      xsNew[i] = x(i);
+      ysNew[i] = y(i);
+    }
+    xs = xsNew;
+    ys = ysNew;
+    yOffset = 0;
+    stride = 1;
+    lifts = Arrays.copyOf(lifts, capacity);
+    owned = true;
+  }
+  /** As copy, for integer coordinates. */
+  private void copyInts(int capacity) {
+    intXs = Arrays.copyOf(intXs, capacity);
+    intYs = Arrays.copyOf(intYs, capacity);
+    owned = true;
+  }
+  private static void checkInt(double x, double y) {
+    if(!isInt(x) || !isInt(y)) {
+      throw new IllegalArgumentException("Point " + x + "," + y
+          + " not of integers below INT_BOUND");
+    }
+  }
+  public double x(int i) {
+    return intXs!=null ? intXs[i] : xs[stride*i];
+  }
+  public double y(int i) {
+    return intYs!=null ? intYs[i] : ys[yOffset + stride*i];
+  }
+  /** Returns x*x+y*y of point i; rounded, for integer coordinates. */
+  public double lift(int i) {
+    if(intXs!=null) {
+      double x = intXs[i];
+      double y = intYs[i];
+      return x*x + y*y;
+    }
+    return lifts[i];
+  }
+  /** Creates a Point with the coordinates of point i. */
+  public Point getPoint(int i) {
+    return new Point(x(i), y(i));
+  }
+  /** Returns the index of the largest point, using yThenX order. */
+  public int findLargest() {
+    int iLargest = 0;
+    for(int i=1; i<size; ++i) {
+      if(compareYThenX(i, iLargest) > 0) {
+        iLargest = i;
+      }
+    }
+    return iLargest;
+  }
+  /** Compares points i and j as DelaunayTriangulation.yThenXComparator
+   *  does, returning -1, 0 or 1 . */
+  public int compareYThenX(int i, int j) {
+    return compareYThenX(x(i), y(i), j);
+  }
+  /** Compares (x,y) to point j as DelaunayTriangulation.yThenXComparator
+   *  does, returning -1, 0 or 1 . */
+  public int compareYThenX(double x, double y, int j) {
+    double yj = y(j);
+    if(y != yj) {
+      return y > yj ? 1 : -1;
+    }
+    double xj = x(j);
+    if(x != xj) {
+      return x > xj ? 1 : -1;
+    }
+    return 0;
+  }
+  /** @see Predicates#orient2d(double, double, double, double, double,
+   *    double) */
+  public int orient2d(int a, int b, int c) {
+    if(intXs!=null) {
+      return orient2d(a, b, intXs[c], intYs[c]);
+    }
+    return Predicates.orient2d(x(a), y(a), x(b), y(b), x(c), y(c));
+  }
+  /** @see Predicates#orient2d(double, double, double, double, double,
+   *    double) */
+  public int orient2d(int a, int b, double x, double y) {
+    if(intXs!=null && isInt(x) && isInt(y)) {
+      return orient2d(a, b, (long)x, (long)y);
+    }
+    return Predicates.orient2d(x(a), y(a), x(b), y(b), x, y);
+  }
+  /** Exact orient2d for integer coordinates; the products are below 2^60
+   *  in absolute value. */
+  private int orient2d(int a, int b, long cx, long cy) {
+    long acx = intXs[a] - cx;
+    long acy = intYs[a] - cy;
+    long bcx = intXs[b] - cx;
+    long bcy = intYs[b] - cy;
+    return Long.signum(acx*bcy - acy*bcx);
+  }
+  /**
+   * Returns the result of Predicates.incircle for points a, b, c and d.
+   * The filter uses the lifts: the determinant of rows
+   * {x-dx, y-dy, lift-dLift} equals that of Predicates.incircle, and its
+   * rounding error is at most 7*eps*|lift-dLift|*p + 2*eps*(lift+dLift)*p
+   * summed over the rows, with p the permanent of the 2 by 2 minor, and eps
+   * being 2^-53 .
+   */
+  public int incircle(int a, int b, int c, int d) {
+    if(intXs!=null) {
+      return incircleInts(a, b, c, d);
+    }
+    double dx = x(d);
+    double dy = y(d);
+    double dLift = lifts[d];
+    double adx = x(a)-dx;
+    double ady = y(a)-dy;
+    double bdx = x(b)-dx;
+    double bdy = y(b)-dy;
+    double cdx = x(c)-dx;
+    double cdy = y(c)-dy;
+    double aLift = lifts[a]-dLift;
+    double bLift = lifts[b]-dLift;
+    double cLift = lifts[c]-dLift;
+    double bdxcdy = bdx * cdy;
+    double cdxbdy = cdx * bdy;
+    double cdxady = cdx * ady;
+    double adxcdy = adx * cdy;
+    double adxbdy = adx * bdy;
+    double bdxady = bdx * ady;
+    double det = aLift * (bdxcdy - cdxbdy)
+        + bLift * (cdxady - adxcdy)
+        + cLift * (adxbdy - bdxady);
+    double permanent =
+        (Math.abs(bdxcdy) + Math.abs(cdxbdy))
+            * (Math.abs(aLift) + lifts[a] + dLift)
+        + (Math.abs(cdxady) + Math.abs(adxcdy))
+            * (Math.abs(bLift) + lifts[b] + dLift)
+        + (Math.abs(adxbdy) + Math.abs(bdxady))
+            * (Math.abs(cLift) + lifts[c] + dLift);
+    double bound = LIFTED_INCIRCLE_BOUND * permanent;
+    if(det > bound) {
+      return 1;
+    }
+    if(-det > bound) {
+      return -1;
+    }
+    return Predicates.incircle(x(a), y(a), x(b), y(b), x(c), y(c), dx, dy);
+  }
+  /**
+   * Exact incircle for integer coordinates: the determinant of rows
+   * {x-dx, y-dy, lift-dLift} , summed in 128 bits as a high and an unsigned
+   * low long.
+   */
+  private int incircleInts(int a, int b, int c, int d) {
+    long dx = intXs[d];
+    long dy = intYs[d];
+    long adx = intXs[a]-dx;
+    long ady = intYs[a]-dy;
+    long bdx = intXs[b]-dx;
+    long bdy = intYs[b]-dy;
+    long cdx = intXs[c]-dx;
+    long cdy = intYs[c]-dy;
+    long aLift = adx*adx + ady*ady;
+    long bLift = bdx*bdx + bdy*bdy;
+    long cLift = cdx*cdx + cdy*cdy;
+    long aMinor = bdx*cdy - cdx*bdy;
+    long bMinor = cdx*ady - adx*cdy;
+    long cMinor = adx*bdy - bdx*ady;
+    long hi = Math.multiplyHigh(aLift, aMinor);
+    long lo = aLift*aMinor;
+    long p = bLift*bMinor;
+    long sum = lo + p;
+    hi += Math.multiplyHigh(bLift, bMinor)
+        + (Long.compareUnsigned(sum, lo) < 0 ? 1 : 0);
+    lo = sum;
+    p = cLift*cMinor;
+    sum = lo + p;
+    hi += Math.multiplyHigh(cLift, cMinor)
+        + (Long.compareUnsigned(sum, lo) < 0 ? 1 : 0);
+    lo = sum;
+    return hi<0 ? -1 : (hi|lo)==0 ? 0 : 1;
+  }
+}
@@ -0,0 +1,159 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+/**
+ * Merges coincident and near-coincident points, which the triangulation
+ * does not allow, in time linear in the number of points. The points are
+ * visited in order; a point within tolerance of an earlier kept point is
+ * merged into it, and else is kept. Kept points are found through a uniform
+ * grid of cells of side tolerance, hashed into an open addressing table, so
+ * that only the 3 by 3 cells around a point are searched. With tolerance 0
+ * only equal points are merged, and each coordinate pair is a cell of its
+ * own.
+ * Merging is not transitive: two points within tolerance of each other may
+ * be kept both if they lie within tolerance of different kept points.
+ * Kept points are more than tolerance apart.
+ */
+public class Deduplication {
+
+  private static final int EMPTY = -1;
+
+  private Coordinates coordinates;
+  private double tolerance;
+  /** canonical[i] : index in getUnique() of point i. */
+  private int[] canonical;
+  /** representatives[j] : index of unique point j in the input. */
+  private int[] representatives;
+  private int numUnique;
+  /** Hash table of cells: cell (cellXs[s],cellYs[s]) holds the kept points
+   *  heads[s], next[heads[s]], ... ; heads[s]==EMPTY if slot s is free. */
+  private long[] cellXs;
+  private long[] cellYs;
+  private int[] heads;
+  /** next[j] : kept point after unique point j in its cell, or EMPTY. */
+  private int[] next;
+  private Coordinates unique;
+
+  /**
+   * @param tolerance distance within which points are merged; 0 to merge
+   *   equal points only.
+   */
+  public Deduplication(Coordinates coordinates, double tolerance) {
+    if(!(tolerance>=0) || Double.isInfinite(tolerance)) {
+      throw new IllegalArgumentException("tolerance: " + tolerance);
+    }
+    this.coordinates = coordinates;
+    this.tolerance = tolerance;
+    int n = coordinates.size();
+    canonical = new int[n];
+    representatives = new int[n];
+    next = new int[n];
+    // At most half the slots in use.
+    int capacity = Integer.highestOneBit(Math.max(n, 1)) << 2;
+    cellXs = new long[capacity];
+    cellYs = new long[capacity];
+    heads = new int[capacity];
+    Arrays.fill(heads, EMPTY);
+    int reach = tolerance==0 ? 0 : 1;
+    for(int i=0; i<n; ++i) {
+      double x = coordinates.x(i);
+      double y = coordinates.y(i);
+      long cx = cell(x);
+      long cy = cell(y);
+      int found = EMPTY;
+      for(int dy=-reach; dy<=reach && found==EMPTY; ++dy) {
+        for(int dx=-reach; dx<=reach && found==EMPTY; ++dx) {
+          found = findNear(cx+dx, cy+dy, x, y);
+        }
+      }
+      if(found==EMPTY) {
+        found = numUnique++;
+        representatives[found] = i;
+        int slot = slot(cx, cy);
+        if(heads[slot]==EMPTY) {
+          cellXs[slot] = cx;
+          cellYs[slot] = cy;
+        }
+        next[found] = heads[slot];
+        heads[slot] = found;
+      }
+      canonical[i] = found;
+    }
+    cellXs = null;
+    cellYs = null;
+    heads = null;
+    next = null;
+    representatives = Arrays.copyOf(representatives, numUnique);
+    if(coordinates.isInteger()) {
+      int[] xs = new int[numUnique];
+      int[] ys = new int[numUnique];
+      for(int j=0; j<numUnique; ++j) {
+        xs[j] = (int)coordinates.x(representatives[j]);
+        ys[j] = (int)coordinates.y(representatives[j]);
+      }
+      unique = Coordinates.ofInts(xs, ys);
+    }
+    else {
+      double[] xs = new double[numUnique];
+      double[] ys = new double[numUnique];
+      for(int j=0; j<numUnique; ++j) {
+        xs[j] = coordinates.x(representatives[j]);
+        ys[j] = coordinates.y(representatives[j]);
+      }
+      unique = new Coordinates(xs, ys);
+    }
+  }
+  /** The cell of coordinate v: its bits if tolerance is 0 , with -0.0 as
+   *  0.0 . */
+  private long cell(double v) {
+    if(tolerance==0) {
+      return Double.doubleToLongBits(v + 0.0);
+    }
+    return (long)Math.floor(v/tolerance);
+  }
+  /** Slot of cell (cx,cy) in the table: the slot that has it, or the free
+   *  slot where it would go. */
+  private int slot(long cx, long cy) {
+    long h = cx*0x9E3779B97F4A7C15L + cy*0xC2B2AE3D27D4EB4FL;
+    int mask = heads.length-1;
+    int s = (int)(h ^ (h >>> 32)) & mask;
+    while(heads[s]!=EMPTY && (cellXs[s]!=cx || cellYs[s]!=cy)) {
+      s = (s+1) & mask;
+    }
+    return s;
+  }
+  /** A kept point of cell (cx,cy) within tolerance of (x,y) , or EMPTY. */
+  private int findNear(long cx, long cy, double x, double y) {
+    double t2 = tolerance*tolerance;
+    for(int j=heads[slot(cx, cy)]; j!=EMPTY; j=next[j]) {
+      double dx = coordinates.x(representatives[j]) - x;
+      double dy = coordinates.y(representatives[j]) - y;
+      if(dx*dx + dy*dy <= t2) {
+        return j;
+      }
+    }
+    return EMPTY;
+  }
+  /** Returns canonical, with canonical[i] the index in getUnique() of the
+   *  point that point i is merged into, or is. */
+  public int[] getCanonical() {
+    return canonical;
+  }
+  /** Returns representatives, with representatives[j] the index of unique
+   *  point j in the input: the first point merged into it. */
+  public int[] getRepresentatives() {
+    return representatives;
+  }
+  /** The kept points, in input order; integer if the points are. */
+  public Coordinates getUnique() {
+    return unique;
+  }
+  public int getNumUnique() {
+    return numUnique;
+  }
+  /** Number of points merged into another point. */
+  public int getNumMerged() {
+    return canonical.length - numUnique;
+  }
+}
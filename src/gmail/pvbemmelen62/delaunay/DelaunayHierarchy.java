@@ -0,0 +1,101 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Delaunay hierarchy, to find the triangle containing a point.
+ * Level 0 is the triangulation itself; each point of level k is also in
+ * level k+1 with probability 1/RATIO, and each level is the Delaunay
+ * triangulation of its points, with the same special vertices and point
+ * iLargest, so that a new largest point is added to every level. Locating
+ * walks in the top level, and descends level by level, each time walking
+ * from the vertex nearest to the point found in the level above; each walk
+ * takes expected constant time, so locating takes expected O(log n) time.
+ * Unlike the history DAG it holds only live triangles, and a point is
+ * removed from the hierarchy by removing it from every level that has it.
+ * @see Olivier Devillers, The Delaunay hierarchy, International Journal of
+ *   Foundations of Computer Science 13 (2002) 163-180.
+ */
+public class DelaunayHierarchy {
+
+  /** Expected number of points of level k per point of level k+1 . */
+  public static final int RATIO = 30;
+  /** Maximum number of levels, including level 0. */
+  public static final int MAX_LEVELS = 5;
+
+  private Coordinates coordinates;
+  private Random random;
+  /** levels[0..numLevels-1] ; levels[0] is the triangulation. */
+  private Dcel[] levels = new Dcel[MAX_LEVELS];
+  private int numLevels;
+
+  /**
+   * @param base Dcel of level 0, with only the special vertices and point
+   *   iLargest.
+   */
+  public DelaunayHierarchy(Dcel base, Coordinates coordinates,
+      Random random) {
+    this.coordinates = coordinates;
+    this.random = random;
+    levels[0] = base;
+    numLevels = 1;
+  }
+  public int getNumLevels() {
+    return numLevels;
+  }
+  public Dcel getLevel(int k) {
+    return levels[k];
+  }
+  /**
+   * Returns the highest level for a new point: k with probability
+   * (1/RATIO)^k * (1-1/RATIO) , at most MAX_LEVELS-1 ; adds the levels that
+   * do not exist yet.
+   */
+  public int newPointLevel() {
+    int k = 0;
+    while(k<MAX_LEVELS-1 && random.nextInt(RATIO)==0) {
+      ++k;
+    }
+    while(numLevels<=k) {
+      levels[numLevels++] = new Dcel(coordinates, levels[0].getLargest());
+    }
+    return k;
+  }
+  /**
+   * Locates (x,y) in the levels 0..numLevels-1 , and puts in located[k] the
+   * halfedge that Dcel.walk returns for level k.
+   * @param located at least numLevels long.
+   */
+  public void locate(double x, double y, HalfEdge[] located) {
+    int v = levels[0].getLargest();
+    for(int k=numLevels-1; k>=0; --k) {
+      Dcel level = levels[k];
+      HalfEdge h = level.walk(level.getVertex(v).edge, x, y);
+      located[k] = h;
+      v = nearestVertex(h, x, y);
+    }
+  }
+  /** The vertex of h.face, other than -1 and -2, nearest to (x,y) . */
+  private int nearestVertex(HalfEdge h, double x, double y) {
+    int nearest = -1;
+    double nearestDistance = Double.MAX_VALUE;
+    for(int j=0; j<3; ++j) {
+      int i = h.origin.index;
+      h = h.next;
+      if(i<0) {
+        continue;
+      }
+      double dx = coordinates.x(i) - x;
+      double dy = coordinates.y(i) - y;
+      double d = dx*dx + dy*dy;
+      if(d<nearestDistance) {
+        nearest = i;
+        nearestDistance = d;
+      }
+    }
+    return nearest;
+  }
+}
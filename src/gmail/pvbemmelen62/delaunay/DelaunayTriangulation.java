@@ -5,6 +5,7 @@ import java.util.*;
 import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
 import gmail.pvbemmelen62.delaunay.dcel.*;
 import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Locator.*;
 
 public class DelaunayTriangulation {
   /*
@@ -16,8 +17,87 @@ public class DelaunayTriangulation {
    */
   protected Dcel dcel;
   protected PointLocationStructure pls;
-  protected Point[] points;
+  protected DelaunayHierarchy hierarchy;
+  protected Coordinates coordinates;
   protected int iLargest;
+  protected LocationMode locationMode;
+  protected Validation validation;
+  protected boolean edgeIndex;
+  protected Retention retention;
+  protected Deduplication deduplication;
+  /** Created by getLocator() on first use. */
+  private volatile Locator locator;
+  /** Last point inserted by insert, or -1 . */
+  private int iLastInserted = -1;
+  /** Scratch space of insert(double, double) . */
+  private HalfEdge[] located;
+  /** Work stack of legalizeEdges, reused for every inserted point; grows as
+   *  needed. */
+  private HalfEdge[] legalizeStack = new HalfEdge[16];
+  private int legalizeStackSize;
+  /** Scratch space of flipEdge. */
+  private int[] flipTri0 = new int[3];
+  private int[] flipTri1 = new int[3];
+  /** Work stack of flipIllegalEdges, reused by every move and removal. */
+  private ArrayList<HalfEdge> flipStack = new ArrayList<>();
+  /** Ears of the point being removed, reused by every removal. */
+  private EarQueue earQueue = new EarQueue();
+
+  /** Retention.PRUNE keeps the nodes of the first 1/PRUNE_RATIO of the
+   *  inserted points. */
+  public static final int PRUNE_RATIO = 16;
+
+  /** How the triangle containing a new point is found. */
+  public enum LocationMode {
+    /** Points in random order, located by descending the history DAG in
+     *  PointLocationStructure. */
+    HISTORY_DAG,
+    /** Points in biased randomized insertion order, located by walking from
+     *  the previously inserted point; no PointLocationStructure. */
+    WALK,
+    /** Points in biased randomized insertion order, located by descending
+     *  the levels of a DelaunayHierarchy. */
+    HIERARCHY
+  }
+  /** What is kept of the history DAG once the triangulation is done. */
+  public enum Retention {
+    /** Nothing; the faces link to no node. */
+    RELEASE,
+    /** Only the nodes of the first 1/PRUNE_RATIO of the inserted points, to
+     *  find a nearby vertex from which findContainingHalfEdge walks. */
+    PRUNE,
+    /** All nodes; the faces keep their links to the leaves. */
+    KEEP
+  }
+  /** Which checks, by Dcel.validate(), are done while triangulating. */
+  public enum Validation {
+    /** No checks. */
+    NONE,
+    /** Checks after insertions 1, 2, 4, 8, ... and after the last one;
+     *  linear time in total. */
+    SAMPLED,
+    /** Checks after every insertion; quadratic time, for debugging. */
+    PER_INSERT,
+    /** Checks once, after the last insertion. */
+    FINAL
+  }
+  /** Options of the triangulation; the defaults are those used by
+   *  DelaunayTriangulation(Point[]) . */
+  public static class Options {
+    public LocationMode locationMode = LocationMode.HISTORY_DAG;
+    public Validation validation = Validation.NONE;
+    /** Whether the Dcel finds halfedges by an EdgeIndex. */
+    public boolean edgeIndex = false;
+    /** History DAG to reset and reuse, instead of creating a new one, if
+     *  locationMode is HISTORY_DAG. */
+    public PointLocationStructure historyDag = null;
+    /** What is kept of the history DAG, if locationMode is HISTORY_DAG. */
+    public Retention retention = Retention.RELEASE;
+    /** Whether to merge coincident points, and points within snapTolerance
+     *  of each other, before triangulating; see getDeduplication() . */
+    public boolean deduplicate = false;
+    public double snapTolerance = 0;
+  }
 
   public static Comparator<Point> yThenXComparator = new Comparator<Point>() {
     @Override
@@ -61,114 +141,770 @@ public class DelaunayTriangulation {
    * @param points The points for which to create the triangulation.
    */
   public DelaunayTriangulation(Point[] points) {
-    iLargest = findLargestPoint(points);
-    this.points = points;
+    this(points, LocationMode.HISTORY_DAG);
+  }
+  /**
+   * Calculates the Delaunay triangulation.
+   * @param points The points for which to create the triangulation.
+   * @param locationMode How to find the triangle containing a new point.
+   */
+  public DelaunayTriangulation(Point[] points, LocationMode locationMode) {
+    this(points, locationMode, Validation.NONE);
+  }
+  /**
+   * Calculates the Delaunay triangulation.
+   * @param points The points for which to create the triangulation.
+   * @param locationMode How to find the triangle containing a new point.
+   * @param validation Which checks to do while triangulating.
+   */
+  public DelaunayTriangulation(Point[] points, LocationMode locationMode,
+      Validation validation) {
+    this(points, options(locationMode, validation));
+  }
+  /**
+   * Calculates the Delaunay triangulation.
+   * @param points The points for which to create the triangulation.
+   * @param options How to triangulate.
+   */
+  public DelaunayTriangulation(Point[] points, Options options) {
+    this(Coordinates.of(points), options);
+  }
+  /**
+   * Calculates the Delaunay triangulation, reading the coordinates in place.
+   * @param coordinates The points for which to create the triangulation.
+   * @param options How to triangulate.
+   */
+  public DelaunayTriangulation(Coordinates coordinates, Options options) {
+    if(options.deduplicate) {
+      deduplication = new Deduplication(coordinates, options.snapTolerance);
+      coordinates = deduplication.getUnique();
+    }
+    iLargest = coordinates.findLargest();
+    this.coordinates = coordinates;
+    this.locationMode = options.locationMode;
+    this.validation = options.validation;
+    this.edgeIndex = options.edgeIndex;
+    this.pls = options.historyDag;
+    this.retention = options.retention;
     triangulate();
   }
+  private static Options options(LocationMode locationMode,
+      Validation validation) {
+    Options options = new Options();
+    options.locationMode = locationMode;
+    options.validation = validation;
+    return options;
+  }
   public Dcel getDcel() {
     return dcel;
   }
+  /**
+   * The merging of the points, if Options.deduplicate; the triangulation is
+   * that of its unique points, so point i of the input is vertex
+   * getCanonical()[i] . Null if the points were not deduplicated.
+   */
+  public Deduplication getDeduplication() {
+    return deduplication;
+  }
+  /** The Delaunay hierarchy, or null if locationMode isn't HIERARCHY . */
+  public DelaunayHierarchy getHierarchy() {
+    return hierarchy;
+  }
+  /** The history DAG, pruned if retention is PRUNE; null if retention is
+   *  RELEASE or if locationMode is WALK . */
+  public PointLocationStructure getPointLocationStructure() {
+    return pls;
+  }
+  /**
+   * The Locator of the triangulation, created on first use. Creating it
+   * compacts the Dcel, see Dcel.compact(): the halfedges and faces get new
+   * indices, and the retired ones are dropped.
+   */
+  public Locator getLocator() {
+    Locator l = locator;
+    if(l==null) {
+      synchronized(this) {
+        l = locator;
+        if(l==null) {
+          dcel.compact();
+          l = new Locator(dcel);
+          locator = l;
+        }
+      }
+    }
+    return l;
+  }
+  /**
+   * Finds the face, edge or vertex of the triangulation that contains (x,y),
+   * by jump-and-walk, and puts it in location.
+   * Thread-safe, and creates no objects after the first call.
+   * @see Locator#locate(double, double, Locator.Location)
+   */
+  public Location locate(double x, double y, Location location) {
+    return getLocator().locate(x, y, location);
+  }
+  /**
+   * Returns, for each point (xs[k],ys[k]), the Face.index of a triangle that
+   * contains it, or -1 if it lies outside the convex hull; the points are
+   * located in parallel, over the common ForkJoinPool.
+   * @see ParallelLocator#locate(double[], double[])
+   */
+  public int[] locate(double[] xs, double[] ys) {
+    return new ParallelLocator(getLocator()).locate(xs, ys);
+  }
+  /**
+   * Returns a halfedge h with (x,y) in h.face, as Dcel.walk does, by
+   * descending the history DAG to a triangle containing (x,y) and walking
+   * from one of its vertices. Creates no objects; the Dcel and the DAG are
+   * only read, so threads may query concurrently, each with its own
+   * descent.
+   * @throws IllegalStateException if no history DAG was retained.
+   */
+  public HalfEdge findContainingHalfEdge(double x, double y,
+      Descent descent) {
+    if(pls==null) {
+      throw new IllegalStateException("History DAG not retained.");
+    }
+    pls.findContainingLeafNodes(x, y, descent);
+    int node = descent.leaves[0];
+    // At most two of the points are -1 and -2.
+    int v = pls.vertex(node, 0);
+    for(int i=1; v<0; ++i) {
+      v = pls.vertex(node, i);
+    }
+    return dcel.walk(dcel.getVertex(v).edge, x, y);
+  }
   protected void triangulate() {
+    if(locationMode==LocationMode.WALK) {
+      triangulateWalk();
+    }
+    else if(locationMode==LocationMode.HIERARCHY) {
+      triangulateHierarchy();
+    }
+    else {
+      triangulateHistoryDag();
+    }
+  }
+  protected void triangulateHistoryDag() {
     Long seed = 0L;
     Random random = new Random(seed);
-    int[] permutation = Util.permutation(random, 0, points.length-1);
-    pls = new PointLocationStructure(points, iLargest);
-    dcel = new Dcel(points, iLargest);
+    int[] permutation = Util.permutation(random, 0, coordinates.size()-1);
+    if(pls==null) {
+      pls = new PointLocationStructure(coordinates, iLargest);
+    }
+    else {
+      pls.reset(coordinates, iLargest);
+    }
+    Descent descent = new Descent();
+    int[] tri = new int[3];
+    int[] tri0 = new int[3];
+    int[] tri1 = new int[3];
+    dcel = createDcel();
     HalfEdge h_2L = dcel.getHalfEdge(-2, iLargest);
-    h_2L.face.data = pls.top;
+    h_2L.face.node = pls.top;
+    int numInserted = 1;
+    int numPruned = coordinates.size()/PRUNE_RATIO;
+    int numPrunedNodes = pls.getNumNodes();
     for(int i=0; i<permutation.length; ++i) {
       int pointIndex = permutation[i];
       if(pointIndex==iLargest) {
         continue;
       }
-      Node[] nodes = pls.findContainingLeafNodes(points[pointIndex]);
-      if(nodes.length==1) {
-        Node node = nodes[0];
-        int[] tri = node.triangle;
-        int i0 = tri[0];
-        int i1 = tri[1];
-        int i2 = tri[2];
-        int i3 = pointIndex;
-        pls.splitContainingLeafNode(node, i3);
+      int numNodes = pls.findContainingLeafNodes(coordinates.x(pointIndex),
+          coordinates.y(pointIndex), descent);
+      if(numNodes==1) {
+        int node = descent.leaves[0];
+        pls.getTriangle(node, tri);
+        pls.splitContainingLeafNode(node, pointIndex);
         HalfEdge h30 = dcel.splitTriangle(tri, pointIndex);
-        dcel.checkEdges();
         HalfEdge h31 = h30.prev.twin;
         HalfEdge h32 = h30.twin.next;
-        Face[] facesNew = new Face[] { h30.face, h31.face, h32.face };
-        for(int j=0; j<3; ++j) {
-          facesNew[j].data = node.children[j];
-        }
-        legalizeEdge(i3, i0, i1);
-        dcel.checkEdges();
-        legalizeEdge(i3, i1, i2);
-        dcel.checkEdges();
-        legalizeEdge(i3, i2, i0);
-        dcel.checkEdges();
-      }
-      else { // nodes.length==2
-        int[] tri0 = nodes[0].triangle;
-        int[] tri1 = nodes[1].triangle;
-        int[] commons = Triangle.findCommonPoints(tri0, tri1);
-        int i0 = tri0[commons[0]];
-        int i1 = tri0[commons[1]];
-        int i2 = tri0[Triangle.nonCommon(commons)];
-        int i3 = tri1[Triangle.theOtherPoint(tri1, new int[] { i0, i1})];
+        h30.face.node = pls.child(node, 0);
+        h31.face.node = pls.child(node, 1);
+        h32.face.node = pls.child(node, 2);
+        pushLegalize(h32.next); // {i2,i0}
+        pushLegalize(h31.next); // {i1,i2}
+        pushLegalize(h30.next); // {i0,i1}
+        legalizeEdges(dcel);
+      }
+      else { // numNodes==2
+        int node0 = descent.leaves[0];
+        int node1 = descent.leaves[1];
+        pls.getTriangle(node0, tri0);
+        pls.getTriangle(node1, tri1);
         int i4 = pointIndex;
-        pls.splitContainingLeafNodes(nodes[0], nodes[1], i4);
+        pls.splitContainingLeafNodes(node0, node1, i4);
         HalfEdge h04 = dcel.splitTriangles(tri0, tri1, i4);
-        dcel.checkEdges();
-        h04.face.data = nodes[0].children[0]; // {i0,i4,i2}
+        h04.face.node = pls.child(node0, 0); // {i0,i4,i2}
         HalfEdge h41 = h04.next.twin.next;
-        h41.face.data = nodes[0].children[1]; // {i4,i1,i2}
+        h41.face.node = pls.child(node0, 1); // {i4,i1,i2}
         HalfEdge h14 = h41.twin;
-        h14.face.data = nodes[1].children[0]; // {i1,i4,i3}
+        h14.face.node = pls.child(node1, 0); // {i1,i4,i3}
         HalfEdge h40 = h04.twin;
-        h40.face.data = nodes[1].children[1]; // {i4,i0,i3}
-        legalizeEdge(i4,i2,i0);
-        dcel.checkEdges();
-        legalizeEdge(i4,i1,i2);
-        dcel.checkEdges();
-        legalizeEdge(i4,i3,i1);
-        dcel.checkEdges();
-        legalizeEdge(i4,i0,i3);
-        dcel.checkEdges();
-      }
-    }
-  }
-  /** Legalize edge ie0,ie1 for the newly inserted point iNew .
-   * Orientation of iNew, ie0, ie1 is in -z direction.
-   */
-  protected void legalizeEdge(int iNew, int ie0, int ie1) {
-    HalfEdge h = dcel.getHalfEdge(ie0, ie1);
-    if(h==null) {
-//      throw new IllegalStateException("legalizeEdge with non-existing edge"
-//         + "{" + ie0 + ", " + ie1 + "}" + "... may be alright !?");
-      return;
+        h40.face.node = pls.child(node1, 1); // {i4,i0,i3}
+        pushLegalize(h40.next); // {i0,i3}
+        pushLegalize(h14.prev); // {i3,i1}
+        pushLegalize(h41.next); // {i1,i2}
+        pushLegalize(h04.prev); // {i2,i0}
+        legalizeEdges(dcel);
+      }
+      validateAfterInsert(++numInserted);
+      if(numInserted<=numPruned) {
+        numPrunedNodes = pls.getNumNodes();
+      }
     }
-    if(h.isLegal()) {
+    validateFinal();
+    retain(numPrunedNodes);
+  }
+  /**
+   * Drops what retention does not keep of the history DAG.
+   * @param numPrunedNodes number of nodes after inserting the first
+   *   1/PRUNE_RATIO of the points.
+   */
+  protected void retain(int numPrunedNodes) {
+    if(retention==Retention.KEEP) {
       return;
     }
-    if(!h.swapIsConvex()) {
+    dcel.clearFaceNodes();
+    if(retention==Retention.PRUNE) {
+      pls.prune(numPrunedNodes);
+    }
+    else {
+      pls = null;
+    }
+  }
+  protected void triangulateWalk() {
+    Long seed = 0L;
+    Random random = new Random(seed);
+    int[] order = Brio.order(coordinates, random);
+    pls = null;
+    dcel = createDcel();
+    HalfEdge start = dcel.getHalfEdge(-2, iLargest);
+    int numInserted = 1;
+    for(int i=0; i<order.length; ++i) {
+      int pointIndex = order[i];
+      if(pointIndex==iLargest) {
+        continue;
+      }
+      HalfEdge h = dcel.walk(start, coordinates.x(pointIndex),
+          coordinates.y(pointIndex));
+      insertPoint(h, pointIndex);
+      start = dcel.getVertex(pointIndex).edge;
+      validateAfterInsert(++numInserted);
+    }
+    validateFinal();
+  }
+  protected void triangulateHierarchy() {
+    Long seed = 0L;
+    Random random = new Random(seed);
+    int[] order = Brio.order(coordinates, random);
+    pls = null;
+    dcel = createDcel();
+    hierarchy = new DelaunayHierarchy(dcel, coordinates, random);
+    HalfEdge[] located = new HalfEdge[DelaunayHierarchy.MAX_LEVELS];
+    int numInserted = 1;
+    for(int i=0; i<order.length; ++i) {
+      int pointIndex = order[i];
+      if(pointIndex==iLargest) {
+        continue;
+      }
+      int level = hierarchy.newPointLevel();
+      hierarchy.locate(coordinates.x(pointIndex), coordinates.y(pointIndex),
+          located);
+      for(int k=0; k<=level; ++k) {
+        insertPoint(hierarchy.getLevel(k), located[k], pointIndex);
+      }
+      validateAfterInsert(++numInserted);
+    }
+    validateFinal();
+  }
+  /**
+   * Inserts point (x,y) into the triangulation, appending it to the
+   * coordinates, and returns its index. The point is located with the
+   * hierarchy if locationMode is HIERARCHY, and else by walking from the
+   * point inserted last. A point larger than all others in yThenX order
+   * splits the outer face, and becomes the largest point.
+   * Drops the history DAG and the Locator, which no longer match the
+   * triangulation.
+   * @throws CoincidentPointException if (x,y) coincides with a point.
+   */
+  public int insert(double x, double y) {
+    dropLocationStructures();
+    return insert(-1, x, y, false);
+  }
+  /**
+   * Inserts the points (xs[k],ys[k]) into the triangulation, appending them
+   * to the coordinates in that order, and returns the index of the first
+   * one: point k of the batch gets index first+k . The points are inserted
+   * in Hilbert curve order, each located by walking from the point inserted
+   * before it, so that consecutive walks are short and touch nearby parts
+   * of the Dcel. With a hierarchy, only the points that go to a level above
+   * 0 are located with the hierarchy.
+   * Drops the history DAG and the Locator, which no longer match the
+   * triangulation.
+   * If a point cannot be inserted, the batch is undone: the points of the
+   * batch inserted so far are removed again, and the coordinates are
+   * truncated to their size before the batch, so that the triangulation
+   * has the points it had before.
+   * @throws CoincidentPointException if a point coincides with a point of
+   *   the triangulation or with another point of the batch.
+   * @throws IllegalArgumentException if the coordinates are integer and a
+   *   point is not, see Coordinates.add .
+   */
+  public int insert(double[] xs, double[] ys) {
+    if(xs.length!=ys.length) {
+      throw new IllegalArgumentException("xs.length " + xs.length
+          + " != ys.length " + ys.length);
+    }
+    Coordinates batch = new Coordinates(xs, ys);
+    int[] order = new int[xs.length];
+    for(int k=0; k<order.length; ++k) {
+      order[k] = k;
+    }
+    HilbertCurve.sort(batch, MyRect.fromCoordinates(batch), order, 0,
+        order.length);
+    dropLocationStructures();
+    int first = coordinates.size();
+    int numInserted = 0;
+    try {
+      for(int k=0; k<xs.length; ++k) {
+        coordinates.add(xs[k], ys[k]);
+      }
+      for(; numInserted<order.length; ++numInserted) {
+        int k = order[numInserted];
+        insert(first+k, xs[k], ys[k], true);
+      }
+    }
+    catch(RuntimeException e) {
+      for(int j=numInserted-1; j>=0; --j) {
+        remove(first + order[j]);
+      }
+      coordinates.truncate(first);
+      throw e;
+    }
+    return first;
+  }
+  /**
+   * As insert(double, double) , but inserts (x,y) as point pointIndex, which
+   * is not in the triangulation, or as a new point if pointIndex is -1 .
+   * @param walkFromLast whether to locate by walking from the point inserted
+   *   last also with a hierarchy, if the point goes to level 0 only.
+   */
+  private int insert(int pointIndex, double x, double y,
+      boolean walkFromLast) {
+    if(coordinates.compareYThenX(x, y, iLargest) > 0) {
+      pointIndex = place(pointIndex, x, y);
+      int numLevels = hierarchy==null ? 1 : hierarchy.getNumLevels();
+      for(int k=0; k<numLevels; ++k) {
+        Dcel d = hierarchy==null ? dcel : hierarchy.getLevel(k);
+        HalfEdge h30 = d.splitOuterFace(pointIndex);
+        pushLegalize(h30.twin.next.next); // {iLargest,-2}
+        pushLegalize(h30.prev.twin.next); // {-1,iLargest}
+        legalizeEdges(d);
+      }
+      iLargest = pointIndex;
+    }
+    else {
+      int level = hierarchy==null ? 0 : hierarchy.newPointLevel();
+      if(hierarchy!=null
+          && (level>0 || !walkFromLast || iLastInserted==-1)) {
+        if(located==null) {
+          located = new HalfEdge[DelaunayHierarchy.MAX_LEVELS];
+        }
+        hierarchy.locate(x, y, located);
+        checkNotCoinciding(located[0], x, y);
+        pointIndex = place(pointIndex, x, y);
+        for(int k=0; k<=level; ++k) {
+          insertPoint(hierarchy.getLevel(k), located[k], pointIndex);
+        }
+      }
+      else {
+        int iStart = iLastInserted==-1 ? iLargest : iLastInserted;
+        HalfEdge h = dcel.walk(dcel.getVertex(iStart).edge, x, y);
+        checkNotCoinciding(h, x, y);
+        pointIndex = place(pointIndex, x, y);
+        insertPoint(h, pointIndex);
+      }
+    }
+    iLastInserted = pointIndex;
+    return pointIndex;
+  }
+  /** Sets point pointIndex to (x,y) , or adds (x,y) if pointIndex is -1 ;
+   *  returns the index of the point. */
+  private int place(int pointIndex, double x, double y) {
+    if(pointIndex==-1) {
+      return coordinates.add(x, y);
+    }
+    coordinates.set(pointIndex, x, y);
+    return pointIndex;
+  }
+  /**
+   * Moves point pointIndex to (x,y) , keeping its index.
+   * If (x,y) lies inside the star of the point, in every level that has it,
+   * the edges keep their end points, and only the edges of the star and of
+   * the polygon around it may have become illegal: these are flipped, and
+   * the edges that flipping makes illegal in turn, until the triangulation
+   * is Delaunay again, which takes time depending on how far the point
+   * moves, not on the number of points. Else, and for the largest point, or
+   * a point that becomes the largest, the point is removed and inserted
+   * again.
+   * Drops the history DAG and the Locator, which no longer match the
+   * triangulation.
+   * @throws IllegalArgumentException if the point is not in the
+   *   triangulation.
+   * @throws CoincidentPointException if (x,y) coincides with another point;
+   *   the triangulation is then unchanged.
+   */
+  public void move(int pointIndex, double x, double y) {
+    if(pointIndex<0 || pointIndex>=coordinates.size()
+        || dcel.getVertex(pointIndex)==null) {
+      throw new IllegalArgumentException("No vertex " + pointIndex);
+    }
+    if(coordinates.x(pointIndex)==x && coordinates.y(pointIndex)==y) {
       return;
     }
-    int iOpposite = h.twin.prev.origin.index;     // opposite iNew wrt h.
-    HalfEdge hNew = flipEdge(h);
-    Util.myAssert(hNew.next.next.next==hNew);
-    Util.myAssert(hNew.origin.index==iOpposite
-        || hNew.twin.origin.index==iOpposite);
-    legalizeEdge(iNew, ie0, iOpposite);
-    legalizeEdge(iNew, iOpposite, ie1);
+    Vertex v = dcel.getVertex(pointIndex);
+    int compareLargest = coordinates.compareYThenX(x, y, iLargest);
+    // Before changing anything: the point is removed below if it leaves its
+    // star, and a point above iLargest coincides with none.
+    if(compareLargest==0) {
+      throw new CoincidentPointException(x, y, iLargest);
+    }
+    if(compareLargest<0) {
+      checkNotCoinciding(dcel.walk(v.edge, x, y), x, y);
+    }
+    boolean inStar = pointIndex!=iLargest && compareLargest<0;
+    int numLevels = hierarchy==null ? 1 : hierarchy.getNumLevels();
+    for(int k=0; inStar && k<numLevels; ++k) {
+      Dcel d = hierarchy==null ? dcel : hierarchy.getLevel(k);
+      inStar = d.getVertex(pointIndex)==null || isInStar(d, pointIndex, x, y);
+    }
+    dropLocationStructures();
+    if(inStar) {
+      coordinates.set(pointIndex, x, y);
+      ArrayList<HalfEdge> stack = flipStack;
+      stack.clear();
+      for(int k=0; k<numLevels; ++k) {
+        Dcel d = hierarchy==null ? dcel : hierarchy.getLevel(k);
+        if(d.getVertex(pointIndex)==null) {
+          continue;
+        }
+        HalfEdge h0 = d.getVertex(pointIndex).edge;
+        HalfEdge h = h0;
+        do {
+          stack.add(h);
+          stack.add(h.next);
+          h = h.prev.twin;
+        }
+        while(h!=h0);
+        flipIllegalEdges(stack);
+      }
+    }
+    else {
+      // Walk from a neighbour to insert the point again.
+      int iNeighbour = v.edge.twin.origin.index;
+      remove(pointIndex);
+      if(iNeighbour>=0 && dcel.getVertex(iNeighbour)!=null) {
+        iLastInserted = iNeighbour;
+      }
+      insert(pointIndex, x, y, false);
+    }
+  }
+  /**
+   * Moves points indices[k] to (xs[k],ys[k]) , as move(int, double, double)
+   * in turn, for all k: for example to move the points of a simulation once
+   * per time step. A move onto the position of a point that has yet to move
+   * waits for that point: the waiting moves are tried again, pass after
+   * pass, until none of them can be done, so that a chain of m moves, each
+   * onto the old position of the next, takes at most m passes.
+   * @throws CoincidentPointException if a point would coincide with another
+   *   point after the moves, or if moves form a cycle, each onto the old
+   *   position of the next, as a swap of two points does; the moves that
+   *   are not blocked by these have then been done.
+   */
+  public void move(int[] indices, double[] xs, double[] ys) {
+    if(xs.length!=indices.length || ys.length!=indices.length) {
+      throw new IllegalArgumentException("indices.length " + indices.length
+          + ", xs.length " + xs.length + ", ys.length " + ys.length);
+    }
+    int[] waiting = null;
+    int numWaiting = 0;
+    for(int k=0; k<indices.length; ++k) {
+      try {
+        move(indices[k], xs[k], ys[k]);
+      }
+      catch(CoincidentPointException e) {
+        if(waiting==null) {
+          waiting = new int[indices.length-k];
+        }
+        waiting[numWaiting++] = k;
+      }
+    }
+    while(numWaiting>0) {
+      CoincidentPointException blocked = null;
+      int numLeft = 0;
+      for(int j=0; j<numWaiting; ++j) {
+        int k = waiting[j];
+        try {
+          move(indices[k], xs[k], ys[k]);
+        }
+        catch(CoincidentPointException e) {
+          if(blocked==null) {
+            blocked = e;
+          }
+          waiting[numLeft++] = k;
+        }
+      }
+      if(numLeft==numWaiting) {
+        throw blocked;
+      }
+      numWaiting = numLeft;
+    }
+  }
+  /** Whether (x,y) lies inside the star of point pointIndex in d, on the -z
+   *  side of each edge of the polygon around it. */
+  private boolean isInStar(Dcel d, int pointIndex, double x, double y) {
+    HalfEdge h0 = d.getVertex(pointIndex).edge;
+    HalfEdge h = h0;
+    do {
+      if(d.orientation(h.next, x, y)>=0) {
+        return false;
+      }
+      h = h.prev.twin;
+    }
+    while(h!=h0);
+    return true;
+  }
+  /** Drops the history DAG and the Locator, before changing the
+   *  triangulation. */
+  private void dropLocationStructures() {
+    if(pls!=null) {
+      dcel.clearFaceNodes();
+      pls = null;
+    }
+    locator = null;
+  }
+  /**
+   * Removes point pointIndex from the triangulation; it stays in the
+   * coordinates. Only the star of the point is re-triangulated, in time
+   * depending on its degree, not on the number of points: see
+   * removeVertex(Dcel, int) . With a hierarchy, the point is removed from
+   * every level that has it.
+   * Drops the history DAG and the Locator, which no longer match the
+   * triangulation.
+   * @throws IllegalArgumentException if the point is not in the
+   *   triangulation.
+   */
+  public void remove(int pointIndex) {
+    if(pointIndex<0 || pointIndex>=coordinates.size()
+        || dcel.getVertex(pointIndex)==null) {
+      throw new IllegalArgumentException("No vertex " + pointIndex);
+    }
+    dropLocationStructures();
+    if(hierarchy==null) {
+      removeVertex(dcel, pointIndex);
+    }
+    else {
+      if(pointIndex==iLargest) {
+        // The next largest point, which becomes iLargest, must be in every
+        // level, as iLargest is.
+        int q = largestNeighbour(dcel, pointIndex);
+        for(int k=1; k<hierarchy.getNumLevels(); ++k) {
+          Dcel level = hierarchy.getLevel(k);
+          if(level.getVertex(q)==null) {
+            HalfEdge h = level.walk(level.getVertex(pointIndex).edge,
+                coordinates.x(q), coordinates.y(q));
+            insertPoint(level, h, q);
+          }
+        }
+      }
+      for(int k=hierarchy.getNumLevels()-1; k>=0; --k) {
+        Dcel level = hierarchy.getLevel(k);
+        if(level.getVertex(pointIndex)!=null) {
+          removeVertex(level, pointIndex);
+        }
+      }
+    }
+    iLargest = dcel.getLargest();
+    if(iLastInserted==pointIndex) {
+      iLastInserted = -1;
+    }
+  }
+  /**
+   * Removes point pointIndex from d: cuts off ears of its star by flips, in
+   * the order of EarQueue, until it has degree 3, and removes it with the
+   * three faces around it. Then flips the illegal edges of the polygon that
+   * was its star, and of the diagonals created inside it, until the
+   * triangulation is Delaunay again; in that order, only ears with a
+   * special vertex, or misordered by rounding, leave edges to flip.
+   * Takes O(d log d) time for a point of degree d.
+   * The largest point keeps its edges to -1 and -2 , and to its largest
+   * neighbour, which becomes the largest point.
+   */
+  protected void removeVertex(Dcel d, int pointIndex) {
+    Vertex v = d.getVertex(pointIndex);
+    int iKeep = pointIndex==d.getLargest()
+        ? largestNeighbour(d, pointIndex) : -3;
+    ArrayList<HalfEdge> stack = flipStack;
+    stack.clear();
+    HalfEdge h = v.edge;
+    do {
+      stack.add(h.next);
+      h = h.prev.twin;
+    }
+    while(h!=v.edge);
+    earQueue.init(d, coordinates, pointIndex, iKeep);
+    while(earQueue.getDegree()>3) {
+      stack.add(earQueue.flipBest());
+    }
+    d.removeDegree3Vertex(pointIndex);
+    flipIllegalEdges(stack);
+  }
+  /**
+   * Flips the illegal edges on stack, and the edges that become illegal
+   * by that, until the stack is empty. Edges no longer in use are skipped.
+   */
+  private void flipIllegalEdges(ArrayList<HalfEdge> stack) {
+    while(!stack.isEmpty()) {
+      HalfEdge h = stack.remove(stack.size()-1);
+      if(!h.inUse || h.isLegal() || !h.swapIsConvex()) {
+        continue;
+      }
+      HalfEdge hNew = h.flip();
+      stack.add(hNew.next);
+      stack.add(hNew.prev);
+      stack.add(hNew.twin.next);
+      stack.add(hNew.twin.prev);
+    }
+  }
+  /** The largest neighbour of pointIndex, other than -1 and -2 . */
+  private int largestNeighbour(Dcel d, int pointIndex) {
+    int largest = -1;
+    HalfEdge h0 = d.getVertex(pointIndex).edge;
+    HalfEdge h = h0;
+    do {
+      int i = h.twin.origin.index;
+      if(i>=0 && (largest<0 || coordinates.compareYThenX(i, largest)>0)) {
+        largest = i;
+      }
+      h = h.prev.twin;
+    }
+    while(h!=h0);
+    return largest;
+  }
+  /** Throws if (x,y) coincides with a vertex of h.face, h as returned by
+   *  Dcel.walk . */
+  private void checkNotCoinciding(HalfEdge h, double x, double y) {
+    int i = h.origin.index;
+    if(i>=0 && coordinates.x(i)==x && coordinates.y(i)==y) {
+      throw new CoincidentPointException(x, y, i);
+    }
+  }
+  /** Creates the Dcel with only the special vertices and point iLargest. */
+  protected Dcel createDcel() {
+    Dcel dcel = new Dcel(coordinates, iLargest);
+    if(edgeIndex) {
+      dcel.enableEdgeIndex();
+    }
+    return dcel;
+  }
+  /** Validates as far as validation asks for, after numInserted points have
+   *  been inserted. */
+  protected void validateAfterInsert(int numInserted) {
+    if(validation==Validation.PER_INSERT
+        || (validation==Validation.SAMPLED
+            && Integer.bitCount(numInserted)==1)) {
+      dcel.validate();
+    }
+  }
+  /** Validates as far as validation asks for, after the last insertion. */
+  protected void validateFinal() {
+    if(validation==Validation.SAMPLED || validation==Validation.FINAL) {
+      dcel.validate();
+    }
+  }
+  /**
+   * Inserts point pointIndex, which lies in h.face, and on h if it lies on
+   * an edge of that face, and legalizes the edges around it.
+   * @param h as returned by Dcel.walk(HalfEdge, double, double) .
+   */
+  protected void insertPoint(HalfEdge h, int pointIndex) {
+    insertPoint(dcel, h, pointIndex);
+  }
+  /** As insertPoint(HalfEdge, int) , in d: dcel or a level of hierarchy. */
+  protected void insertPoint(Dcel d, HalfEdge h, int pointIndex) {
+    double x = coordinates.x(pointIndex);
+    double y = coordinates.y(pointIndex);
+    int orientation = d.orientation(h, x, y);
+    // The edges of the triangles split stay, as edges opposite the point.
+    if(orientation<0) {
+      HalfEdge h01 = h;
+      HalfEdge h12 = h.next;
+      HalfEdge h20 = h.prev;
+      d.splitTriangle(h, pointIndex);
+      pushLegalize(h20);
+      pushLegalize(h12);
+      pushLegalize(h01);
+    }
+    else {
+      if(d.orientation(h.next, x, y)==0
+          || d.orientation(h.prev, x, y)==0) {
+        throw new CoincidentPointException(x, y, h.origin.index);
+      }
+      HalfEdge h12 = h.next;
+      HalfEdge h20 = h.prev;
+      HalfEdge h03 = h.twin.next;
+      HalfEdge h31 = h.twin.prev;
+      d.splitTriangles(h, pointIndex);
+      pushLegalize(h03);
+      pushLegalize(h31);
+      pushLegalize(h12);
+      pushLegalize(h20);
+    }
+    legalizeEdges(d);
+  }
+  /** Pushes h for legalizeEdges: an edge of a triangle of the newly inserted
+   *  point, opposite that point. */
+  protected void pushLegalize(HalfEdge h) {
+    if(legalizeStackSize==legalizeStack.length) {
+      legalizeStack = Arrays.copyOf(legalizeStack, 2*legalizeStackSize);
+    }
+    legalizeStack[legalizeStackSize++] = h;
+  }
+  /**
+   * Legalizes the pushed edges for the newly inserted point, in d: dcel or a
+   * level of hierarchy. Flipping an illegal edge gives the point a new edge,
+   * and the two edges opposite it in its new triangles are pushed in turn.
+   * The edge pushed last is legalized first, so that the edges are flipped
+   * in the order of legalizing them recursively, but without recursion:
+   * the stack grows on the heap, however long the cascade of flips.
+   */
+  protected void legalizeEdges(Dcel d) {
+    while(legalizeStackSize>0) {
+      HalfEdge h = legalizeStack[--legalizeStackSize];
+      legalizeStack[legalizeStackSize] = null;
+      if(h.isLegal() || !h.swapIsConvex()) {
+        continue;
+      }
+      // h01 with the new point as i2 becomes h23: {i0,i3} and {i3,i1} are
+      // now opposite the point.
+      HalfEdge hNew = d==dcel ? flipEdge(h) : h.flip();
+      pushLegalize(hNew.next);
+      pushLegalize(hNew.twin.prev);
+    }
   }
   protected HalfEdge flipEdge(HalfEdge h) {
-    Node node0 = h.face.data;
-    Node node1 = h.twin.face.data;
+    if(pls==null) {
+      return h.flip();
+    }
+    int node0 = h.face.node;
+    int node1 = h.twin.face.node;
     HalfEdge hNew = h.flip();
-    Face[] facesNew = new Face[] { hNew.face, hNew.twin.face };
-    int[] tri0 = facesNew[0].calcTriangle();
-    int[] tri1 = facesNew[1].calcTriangle();
-    Node[] nodesNew = pls.flipEdge(node0, node1, tri0, tri1);
-    facesNew[0].data = nodesNew[0];
-    facesNew[1].data = nodesNew[1];
+    hNew.face.calcTriangle(flipTri0);
+    hNew.twin.face.calcTriangle(flipTri1);
+    int nodeNew0 = pls.flipEdge(node0, node1, flipTri0, flipTri1);
+    hNew.face.node = nodeNew0;
+    hNew.twin.face.node = nodeNew0+1;
     return hNew;
   }
 }
@@ -0,0 +1,410 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.dcel.*;
+
+/**
+ * Divide and conquer Delaunay triangulation, as described by Guibas and
+ * Stolfi. Deterministic O(n log n), without point location; suited for sorted
+ * or gridded points, for which randomized incremental construction gains
+ * nothing. Collinear points are allowed, also all points on one line; equal
+ * points are not, see Deduplication.
+ * @see Guibas, Stolfi - Primitives for the manipulation of general
+ *   subdivisions and the computation of Voronoi diagrams, 1985
+ */
+public class DivideAndConquerTriangulator implements Triangulator {
+
+  @Override
+  public Dcel triangulate(Coordinates coordinates) {
+    int iLargest = coordinates.findLargest();
+    Subdivision sub = new Subdivision(coordinates);
+    sub.triangulate();
+    return sub.toDcel(iLargest);
+  }
+
+  /**
+   * Edges that a triangulation of a range of points may use: edges next,
+   * next+2, .. end-2 have not been used yet, and deleted edges are linked
+   * from freeHead to freeTail by onext.
+   */
+  protected static class EdgePool {
+    int next;
+    int end;
+    int freeHead = -1;
+    int freeTail = -1;
+
+    EdgePool(int next, int end) {
+      this.next = next;
+      this.end = end;
+    }
+  }
+  /**
+   * Edge algebra of Guibas and Stolfi, reduced to the primal edges: directed
+   * edge e and its twin e^1 form one undirected edge, and onext/oprev link the
+   * edges around their origin in +z (counterclockwise) order.
+   * Orientations are in +z direction here, as in the paper; toDcel() turns the
+   * triangles around.
+   */
+  protected static class Subdivision {
+    protected Coordinates coordinates;
+    /** Point indices sorted on x, then y. */
+    protected int[] sorted;
+    /** org[e] : origin of edge e, or -1 if e is not in use. */
+    protected int[] org;
+    protected int[] onext;
+    protected int[] oprev;
+    /** Counterclockwise hull edge out of the leftmost point. */
+    protected int leftEdge = -1;
+
+    public Subdivision(Coordinates coordinates) {
+      this.coordinates = coordinates;
+      int n = coordinates.size();
+      // A planar graph on m vertices has at most 3m-6 edges, so the points
+      // sorted[lo..hi-1] get edges 6*lo .. 6*hi-1 , see newEdgePool().
+      org = new int[6*n];
+      onext = new int[6*n];
+      oprev = new int[6*n];
+      Arrays.fill(org, -1);
+      sorted = new int[n];
+      for(int i=0; i<n; ++i) {
+        sorted[i] = i;
+      }
+    }
+    public void triangulate() {
+      int n = coordinates.size();
+      sortXThenY(sorted, new int[n], 0, n);
+      checkDistinct();
+      if(n>=2) {
+        long edges = delaunay(0, n, newEdgePool(0, n));
+        leftEdge = (int)(edges >>> 32);
+      }
+    }
+    /**
+     * Checks that no two points are equal, once sorted.
+     * @throws IllegalArgumentException if two points are equal.
+     */
+    public void checkDistinct() {
+      for(int k=1; k<sorted.length; ++k) {
+        if(compareXThenY(sorted[k-1], sorted[k])==0) {
+          throw new IllegalArgumentException("Point " + sorted[k-1]
+              + " equals point " + sorted[k]);
+        }
+      }
+    }
+    /** Edges for triangulating points sorted[lo..hi-1] . */
+    public EdgePool newEdgePool(int lo, int hi) {
+      return new EdgePool(6*lo, 6*hi);
+    }
+    /**
+     * Splits the unused pool of points sorted[lo..hi-1] : pool keeps the edges
+     * of sorted[lo..mid-1], the returned pool gets those of sorted[mid..hi-1].
+     */
+    public EdgePool splitEdgePool(EdgePool pool, int mid) {
+      Util.myAssert(pool.freeHead==-1 && pool.next<=6*mid);
+      EdgePool pool1 = new EdgePool(6*mid, pool.end);
+      pool.end = 6*mid;
+      return pool1;
+    }
+    protected int allocEdge(EdgePool pool) {
+      int e = pool.freeHead;
+      if(e!=-1) {
+        pool.freeHead = onext[e];
+        if(pool.freeHead==-1) {
+          pool.freeTail = -1;
+        }
+        return e;
+      }
+      if(pool.next==pool.end) {
+        throw new IllegalStateException("No free edges; equal points?");
+      }
+      e = pool.next;
+      pool.next += 2;
+      return e;
+    }
+    protected void freeEdge(EdgePool pool, int e) {
+      onext[e] = pool.freeHead;
+      pool.freeHead = e;
+      if(pool.freeTail==-1) {
+        pool.freeTail = e;
+      }
+    }
+    /**
+     * Joins the pools of two adjacent ranges of points, for triangulating
+     * their union.
+     * @return pool0, now also containing the edges of pool1.
+     */
+    public EdgePool joinEdgePools(EdgePool pool0, EdgePool pool1) {
+      // Few edges of pool0 are left unused; move them to its free list.
+      for(int e=pool0.next; e<pool0.end; e+=2) {
+        freeEdge(pool0, e);
+      }
+      if(pool0.freeHead==-1) {
+        pool0.freeHead = pool1.freeHead;
+      }
+      else {
+        onext[pool0.freeTail] = pool1.freeHead;
+      }
+      if(pool1.freeTail!=-1) {
+        pool0.freeTail = pool1.freeTail;
+      }
+      pool0.next = pool1.next;
+      pool0.end = pool1.end;
+      return pool0;
+    }
+    protected static int sym(int e) {
+      return e^1;
+    }
+    protected int dest(int e) {
+      return org[e^1];
+    }
+    protected int lnext(int e) {
+      return oprev[e^1];
+    }
+    protected int rprev(int e) {
+      return onext[e^1];
+    }
+    protected int makeEdge(int a, int b, EdgePool pool) {
+      int e = allocEdge(pool);
+      org[e] = a;
+      org[e^1] = b;
+      onext[e] = oprev[e] = e;
+      onext[e^1] = oprev[e^1] = e^1;
+      return e;
+    }
+    /** Joins the rings of a and b around their origins if they differ,
+     *  splits them otherwise. */
+    protected void splice(int a, int b) {
+      int an = onext[a];
+      int bn = onext[b];
+      onext[a] = bn;
+      onext[b] = an;
+      oprev[bn] = a;
+      oprev[an] = b;
+    }
+    /** Adds edge from dest(a) to org(b), with a, new edge, b having the same
+     *  left face. */
+    protected int connect(int a, int b, EdgePool pool) {
+      int e = makeEdge(dest(a), org[b], pool);
+      splice(e, lnext(a));
+      splice(e^1, b);
+      return e;
+    }
+    protected void deleteEdge(int e, EdgePool pool) {
+      splice(e, oprev[e]);
+      splice(e^1, oprev[e^1]);
+      e &= ~1;
+      org[e] = org[e^1] = -1;
+      freeEdge(pool, e);
+    }
+    protected boolean ccw(int a, int b, int c) {
+      return coordinates.orient2d(a, b, c) > 0;
+    }
+    protected boolean rightOf(int x, int e) {
+      return ccw(x, dest(e), org[e]);
+    }
+    protected boolean leftOf(int x, int e) {
+      return ccw(x, org[e], dest(e));
+    }
+    /** True iff d lies inside the circle through a, b, c, which are in
+     *  +z direction. */
+    protected boolean inCircle(int a, int b, int c, int d) {
+      return coordinates.incircle(a, b, c, d) > 0;
+    }
+    /**
+     * Triangulates points sorted[lo..hi-1] .
+     * @return the counterclockwise hull edge out of the leftmost point in the
+     *   high 32 bits, and the clockwise hull edge out of the rightmost point
+     *   in the low 32 bits.
+     */
+    protected long delaunay(int lo, int hi, EdgePool pool) {
+      int n = hi-lo;
+      if(n==2) {
+        int a = makeEdge(sorted[lo], sorted[lo+1], pool);
+        return pack(a, sym(a));
+      }
+      if(n==3) {
+        int s1 = sorted[lo];
+        int s2 = sorted[lo+1];
+        int s3 = sorted[lo+2];
+        int a = makeEdge(s1, s2, pool);
+        int b = makeEdge(s2, s3, pool);
+        splice(sym(a), b);
+        if(ccw(s1, s2, s3)) {
+          connect(b, a, pool);
+          return pack(a, sym(b));
+        }
+        else if(ccw(s1, s3, s2)) {
+          int c = connect(b, a, pool);
+          return pack(sym(c), c);
+        }
+        else { // collinear
+          return pack(a, sym(b));
+        }
+      }
+      int mid = lo + n/2;
+      long left = delaunay(lo, mid, pool);
+      long right = delaunay(mid, hi, pool);
+      return merge(left, right, pool);
+    }
+    /**
+     * Merges the triangulations of the left and right half, with their hull
+     * edges as returned by delaunay(int, int, EdgePool) .
+     */
+    public long merge(long left, long right, EdgePool pool) {
+      int ldo = (int)(left >>> 32);
+      int ldi = (int)left;
+      int rdi = (int)(right >>> 32);
+      int rdo = (int)right;
+      // lower common tangent
+      while(true) {
+        if(leftOf(org[rdi], ldi)) {
+          ldi = lnext(ldi);
+        }
+        else if(rightOf(org[ldi], rdi)) {
+          rdi = rprev(rdi);
+        }
+        else {
+          break;
+        }
+      }
+      int basel = connect(sym(rdi), ldi, pool);
+      if(org[ldi]==org[ldo]) {
+        ldo = sym(basel);
+      }
+      if(org[rdi]==org[rdo]) {
+        rdo = basel;
+      }
+      while(true) {
+        int lcand = onext[sym(basel)];
+        boolean lValid = rightOf(dest(lcand), basel);
+        if(lValid) {
+          while(inCircle(dest(basel), org[basel], dest(lcand),
+              dest(onext[lcand]))) {
+            int t = onext[lcand];
+            deleteEdge(lcand, pool);
+            lcand = t;
+          }
+        }
+        int rcand = oprev[basel];
+        boolean rValid = rightOf(dest(rcand), basel);
+        if(rValid) {
+          while(inCircle(dest(basel), org[basel], dest(rcand),
+              dest(oprev[rcand]))) {
+            int t = oprev[rcand];
+            deleteEdge(rcand, pool);
+            rcand = t;
+          }
+        }
+        if(!lValid && !rValid) {
+          break;
+        }
+        if(!lValid || (rValid && inCircle(dest(lcand), org[lcand],
+            org[rcand], dest(rcand)))) {
+          basel = connect(rcand, sym(basel), pool);
+        }
+        else {
+          basel = connect(sym(basel), sym(lcand), pool);
+        }
+      }
+      return pack(ldo, rdo);
+    }
+    protected static long pack(int e0, int e1) {
+      return ((long)e0 << 32) | (e1 & 0xffffffffL);
+    }
+    /** Creates the Dcel of this subdivision, once triangulated. */
+    public Dcel toDcel(int iLargest) {
+      int numEdges = org.length;
+      // Every triangle has 3 directed edges.
+      int[] triangles = new int[numEdges];
+      int numTriangles = 0;
+      boolean[] visited = new boolean[numEdges];
+      for(int e=0; e<numEdges; ++e) {
+        if(org[e]==-1 || visited[e]) {
+          continue;
+        }
+        int e1 = lnext(e);
+        int e2 = lnext(e1);
+        if(lnext(e2)!=e || !ccw(org[e], org[e1], org[e2])) {
+          continue;
+        }
+        visited[e] = visited[e1] = visited[e2] = true;
+        // +z in the subdivision, -z in the Dcel.
+        triangles[3*numTriangles] = org[e];
+        triangles[3*numTriangles+1] = org[e2];
+        triangles[3*numTriangles+2] = org[e1];
+        ++numTriangles;
+      }
+      int[] hull;
+      int hullSize = 0;
+      if(leftEdge==-1) {
+        hull = new int[] { iLargest };
+        hullSize = 1;
+      }
+      else {
+        // If all points are collinear, the hull goes back and forth along
+        // them, with 2(n-1) edges; count them first.
+        int e = leftEdge;
+        do {
+          ++hullSize;
+          e = rprev(e);
+        }
+        while(e!=leftEdge);
+        hull = new int[hullSize];
+        hullSize = 0;
+        do {
+          hull[hullSize++] = org[e];
+          e = rprev(e);
+        }
+        while(e!=leftEdge);
+      }
+      return new Dcel(coordinates, iLargest, triangles, numTriangles,
+          hull, hullSize);
+    }
+    /** Merge sort of indices[from..to-1] on x, then y of their points. */
+    public void sortXThenY(int[] indices, int[] tmp, int from, int to) {
+      if(to-from < 2) {
+        return;
+      }
+      int mid = (from+to) >>> 1;
+      sortXThenY(indices, tmp, from, mid);
+      sortXThenY(indices, tmp, mid, to);
+      mergeXThenY(indices, tmp, from, mid, to);
+    }
+    /** Merges sorted indices[from..mid-1] and indices[mid..to-1] . */
+    public void mergeXThenY(int[] indices, int[] tmp, int from, int mid,
+        int to) {
+      int i = from;
+      int j = mid;
+      int k = from;
+      while(i<mid && j<to) {
+        if(compareXThenY(indices[j], indices[i]) < 0) {
+          tmp[k++] = indices[j++];
+        }
+        else {
+          tmp[k++] = indices[i++];
+        }
+      }
+      while(i<mid) {
+        tmp[k++] = indices[i++];
+      }
+      while(j<to) {
+        tmp[k++] = indices[j++];
+      }
+      System.arraycopy(tmp, from, indices, from, to-from);
+    }
+    protected int compareXThenY(int i, int j) {
+      double xi = coordinates.x(i);
+      double xj = coordinates.x(j);
+      if(xi != xj) {
+        return xi < xj ? -1 : 1;
+      }
+      double yi = coordinates.y(i);
+      double yj = coordinates.y(j);
+      if(yi != yj) {
+        return yi < yj ? -1 : 1;
+      }
+      return 0;
+    }
+  }
+}
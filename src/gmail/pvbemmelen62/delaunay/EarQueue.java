@@ -0,0 +1,196 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * The ears of the star of a vertex v that is being removed, by priority, for
+ * deletion by flips as described by Devillers. Ear i is the triangle of
+ * neighbours q(i-1), q(i), q(i+1) of v; flipping edge {v,q(i)} cuts it off,
+ * and leaves v with one neighbour less. Among the ears that can be cut off,
+ * the one whose circumcircle has the largest power with respect to v is a
+ * triangle of the Delaunay triangulation without v, so cutting off ears in
+ * that order leaves nothing to legalize. Ears with a special vertex have no
+ * circumcircle; they come after the others, and may leave edges to
+ * legalize.
+ * <p>
+ * The neighbours form a circular list and the ears an indexed binary heap:
+ * cutting off ear i changes only the ears of q(i-1) and q(i+1), so removing
+ * a vertex of degree d takes O(d log d) time. The arrays grow as needed,
+ * and are reused for the next vertex.
+ * @see Devillers - On deletion in Delaunay triangulations, 2002
+ */
+class EarQueue {
+
+  private Coordinates coordinates;
+  private Dcel dcel;
+  private int pointIndex;
+  private int iKeep;
+  /** edges[i] : halfedge from v to neighbour i. */
+  private HalfEdge[] edges = new HalfEdge[16];
+  /** next[i], prev[i] : neighbours around neighbour i, while in the star. */
+  private int[] next = new int[16];
+  private int[] prev = new int[16];
+  /** priority[i] : minus the power of ear i, smallest first;
+   *  POSITIVE_INFINITY if it cannot be cut off. */
+  private double[] priority = new double[16];
+  /** heap[j] : neighbour at position j of the heap; position[i] : position
+   *  of neighbour i in the heap. */
+  private int[] heap = new int[16];
+  private int[] position = new int[16];
+  private int heapSize;
+
+  /**
+   * Puts the ears around point pointIndex of dcel in the queue.
+   * @param iKeep neighbour whose edge to v must not be flipped, or -3 .
+   */
+  public void init(Dcel dcel, Coordinates coordinates, int pointIndex,
+      int iKeep) {
+    this.dcel = dcel;
+    this.coordinates = coordinates;
+    this.pointIndex = pointIndex;
+    this.iKeep = iKeep;
+    HalfEdge h0 = dcel.getVertex(pointIndex).edge;
+    HalfEdge h = h0;
+    int degree = 0;
+    do {
+      if(degree==edges.length) {
+        grow();
+      }
+      edges[degree++] = h;
+      h = h.prev.twin;
+    }
+    while(h!=h0);
+    for(int i=0; i<degree; ++i) {
+      next[i] = i+1<degree ? i+1 : 0;
+      prev[i] = i>0 ? i-1 : degree-1;
+    }
+    for(int i=0; i<degree; ++i) {
+      priority[i] = calcPriority(i);
+      heap[i] = i;
+      position[i] = i;
+    }
+    heapSize = degree;
+    for(int j=heapSize/2-1; j>=0; --j) {
+      siftDown(j);
+    }
+  }
+  /** The current degree of v. */
+  public int getDegree() {
+    return heapSize;
+  }
+  /**
+   * Cuts off the ear of largest power, by flipping the edge from v to its
+   * middle point.
+   * @return the flipped edge, the diagonal of the cut off ear.
+   * @throws IllegalStateException if no ear can be cut off.
+   */
+  public HalfEdge flipBest() {
+    int i = heap[0];
+    if(priority[i]==Double.POSITIVE_INFINITY) {
+      throw new IllegalStateException("No flippable edge around vertex "
+          + pointIndex);
+    }
+    // The edges to the other neighbours stay, only their faces change.
+    HalfEdge hNew = edges[i].flip();
+    edges[i] = null;
+    int p = prev[i];
+    int n = next[i];
+    next[p] = n;
+    prev[n] = p;
+    int last = heap[--heapSize];
+    if(last!=i) {
+      place(last, position[i]);
+      siftUp(position[last]);
+      siftDown(position[last]);
+    }
+    update(p);
+    update(n);
+    return hNew;
+  }
+  /** Minus the power of v with respect to the circumcircle of ear i, if it
+   *  can be cut off: Double.MAX_VALUE if it has a special vertex. */
+  private double calcPriority(int i) {
+    HalfEdge h = edges[i];
+    if(h.twin.origin.index==iKeep || h.face==dcel.getOuterFace()
+        || h.twin.face==dcel.getOuterFace() || !h.swapIsConvex()) {
+      return Double.POSITIVE_INFINITY;
+    }
+    int a = edges[prev[i]].twin.origin.index;
+    int b = h.twin.origin.index;
+    int c = edges[next[i]].twin.origin.index;
+    if(a<0 || b<0 || c<0) {
+      return Double.MAX_VALUE;
+    }
+    double vx = coordinates.x(pointIndex);
+    double vy = coordinates.y(pointIndex);
+    double ax = coordinates.x(a) - vx;
+    double ay = coordinates.y(a) - vy;
+    double bx = coordinates.x(b) - vx;
+    double by = coordinates.y(b) - vy;
+    double cx = coordinates.x(c) - vx;
+    double cy = coordinates.y(c) - vy;
+    double orient = (bx-ax)*(cy-ay) - (by-ay)*(cx-ax);
+    if(orient==0) {
+      return Double.MAX_VALUE;
+    }
+    // The lifted determinant, relative to v, is orient times r*r minus the
+    // squared distance of v to the center: orient times minus the power.
+    double det = (ax*ax + ay*ay) * (bx*cy - by*cx)
+        + (bx*bx + by*by) * (cx*ay - cy*ax)
+        + (cx*cx + cy*cy) * (ax*by - ay*bx);
+    return det/orient;
+  }
+  /** Recalculates the priority of ear i, and moves it in the heap. */
+  private void update(int i) {
+    priority[i] = calcPriority(i);
+    siftUp(position[i]);
+    siftDown(position[i]);
+  }
+  private void siftUp(int j) {
+    int i = heap[j];
+    while(j>0) {
+      int parent = (j-1)/2;
+      if(priority[heap[parent]] <= priority[i]) {
+        break;
+      }
+      place(heap[parent], j);
+      j = parent;
+    }
+    place(i, j);
+  }
+  private void siftDown(int j) {
+    int i = heap[j];
+    while(true) {
+      int child = 2*j+1;
+      if(child>=heapSize) {
+        break;
+      }
+      if(child+1<heapSize
+          && priority[heap[child+1]] < priority[heap[child]]) {
+        ++child;
+      }
+      if(priority[i] <= priority[heap[child]]) {
+        break;
+      }
+      place(heap[child], j);
+      j = child;
+    }
+    place(i, j);
+  }
+  private void place(int i, int j) {
+    heap[j] = i;
+    position[i] = j;
+  }
+  private void grow() {
+    int capacity = 2*edges.length;
+    edges = Arrays.copyOf(edges, capacity);
+    next = Arrays.copyOf(next, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    priority = Arrays.copyOf(priority, capacity);
+    heap = Arrays.copyOf(heap, capacity);
+    position = Arrays.copyOf(position, capacity);
+  }
+}
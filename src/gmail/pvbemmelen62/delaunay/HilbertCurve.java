@@ -0,0 +1,76 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.*;
+
+/**
+ * Hilbert curve order of points, used to insert or locate points in an order
+ * in which consecutive points lie near each other.
+ * @see https://en.wikipedia.org/wiki/Hilbert_curve
+ */
+public class HilbertCurve {
+
+  /** Number of bits per coordinate of the grid on which points are mapped. */
+  public static final int ORDER = 16;
+
+  /**
+   * Returns the distance along the Hilbert curve of cell (x,y) of a grid of
+   * 2^order by 2^order cells.
+   */
+  public static long index(int order, int x, int y) {
+    int n = 1 << order;
+    long d = 0;
+    for(int s=n/2; s>0; s/=2) {
+      int rx = (x & s) > 0 ? 1 : 0;
+      int ry = (y & s) > 0 ? 1 : 0;
+      d += (long)s * s * ((3 * rx) ^ ry);
+      if(ry==0) {
+        if(rx==1) {
+          x = n-1 - x;
+          y = n-1 - y;
+        }
+        int tmp = x;
+        x = y;
+        y = tmp;
+      }
+    }
+    return d;
+  }
+  /** Returns the Hilbert index of point p, in a grid of 2^ORDER by 2^ORDER
+   *  cells covering rect.
+   */
+  public static long index(MyRect rect, Point p) {
+    return index(rect, p.x, p.y);
+  }
+  /** @see #index(MyRect, Point) */
+  public static long index(MyRect rect, double px, double py) {
+    int max = (1 << ORDER) - 1;
+    int x = toCell(px, rect.minX, rect.width(), max);
+    int y = toCell(py, rect.minY, rect.height(), max);
+    return index(ORDER, x, y);
+  }
+  private static int toCell(double v, double min, double size, int max) {
+    if(size<=0) {
+      return 0;
+    }
+    int c = (int)((v - min) / size * max);
+    return Math.max(0, Math.min(max, c));
+  }
+  /**
+   * Sorts indices[from..to-1], being indices into points, on the Hilbert
+   * index of their points in rect.
+   */
+  public static void sort(Coordinates coordinates, MyRect rect,
+      int[] indices, int from, int to) {
+    // Hilbert index uses 2*ORDER = 32 bits, point index 31 bits.
+    long[] keys = new long[to-from];
+    for(int i=from; i<to; ++i) {
+      int j = indices[i];
+      keys[i-from] = (index(rect, coordinates.x(j), coordinates.y(j)) << 31)
+          | j;
+    }
+    Arrays.sort(keys);
+    for(int i=from; i<to; ++i) {
+      indices[i] = (int)(keys[i-from] & Integer.MAX_VALUE);
+    }
+  }
+}
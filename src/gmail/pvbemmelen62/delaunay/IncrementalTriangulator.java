@@ -0,0 +1,22 @@
+package gmail.pvbemmelen62.delaunay;
+
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+
+/**
+ * Randomized incremental construction by DelaunayTriangulation.
+ */
+public class IncrementalTriangulator implements Triangulator {
+
+  private LocationMode locationMode;
+
+  public IncrementalTriangulator(LocationMode locationMode) {
+    this.locationMode = locationMode;
+  }
+  @Override
+  public Dcel triangulate(Coordinates coordinates) {
+    Options options = new Options();
+    options.locationMode = locationMode;
+    return new DelaunayTriangulation(coordinates, options).getDcel();
+  }
+}
@@ -20,6 +20,21 @@ public class MyRect {
     }
     return new MyRect(minX, maxX, minY, maxY);
   }
+  public static MyRect fromCoordinates(Coordinates coordinates) {
+    double minX = Double.MAX_VALUE;
+    double maxX = -Double.MAX_VALUE;
+    double minY = Double.MAX_VALUE;
+    double maxY = -Double.MAX_VALUE;
+    for(int i=0; i<coordinates.size(); ++i) {
+      double x = coordinates.x(i);
+      double y = coordinates.y(i);
+      minX = Math.min(minX, x);
+      maxX = Math.max(maxX, x);
+      minY = Math.min(minY, y);
+      maxY = Math.max(maxY, y);
+    }
+    return new MyRect(minX, maxX, minY, maxY);
+  }
   public MyRect(double minX, double maxX, double minY, double maxY) {
     this.minX = minX;
     this.maxX = maxX;
@@ -0,0 +1,102 @@
+package gmail.pvbemmelen62.delaunay;
+
+import java.util.concurrent.*;
+
+import gmail.pvbemmelen62.delaunay.DivideAndConquerTriangulator.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+
+/**
+ * Divide and conquer triangulation, with the sort and the recursion split
+ * over a ForkJoinPool.
+ * The halves of a range of points are triangulated in parallel, each using
+ * its own part of the edges (see Subdivision.newEdgePool), so that they share
+ * no mutable state; the merge of the halves then runs in the parent task.
+ * Ranges of at most threshold points are done sequentially.
+ */
+public class ParallelTriangulator implements Triangulator {
+
+  public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+  private ForkJoinPool pool;
+  private int threshold;
+
+  public ParallelTriangulator() {
+    this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+  public ParallelTriangulator(ForkJoinPool pool, int threshold) {
+    this.pool = pool;
+    this.threshold = Math.max(threshold, 3);
+  }
+  @Override
+  public Dcel triangulate(Coordinates coordinates) {
+    int iLargest = coordinates.findLargest();
+    int n = coordinates.size();
+    Subdivision sub = new Subdivision(coordinates);
+    pool.invoke(new SortTask(sub, sub.sorted, new int[n], 0, n));
+    sub.checkDistinct();
+    if(n>=2) {
+      long edges = pool.invoke(new DelaunayTask(sub, 0, n,
+          sub.newEdgePool(0, n)));
+      sub.leftEdge = (int)(edges >>> 32);
+    }
+    return sub.toDcel(iLargest);
+  }
+
+  private class SortTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private Subdivision sub;
+    private int[] indices;
+    private int[] tmp;
+    private int from;
+    private int to;
+
+    SortTask(Subdivision sub, int[] indices, int[] tmp, int from, int to) {
+      this.sub = sub;
+      this.indices = indices;
+      this.tmp = tmp;
+      this.from = from;
+      this.to = to;
+    }
+    @Override
+    protected void compute() {
+      if(to-from <= threshold) {
+        sub.sortXThenY(indices, tmp, from, to);
+        return;
+      }
+      int mid = (from+to) >>> 1;
+      invokeAll(new SortTask(sub, indices, tmp, from, mid),
+          new SortTask(sub, indices, tmp, mid, to));
+      sub.mergeXThenY(indices, tmp, from, mid, to);
+    }
+  }
+
+  private class DelaunayTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+    private Subdivision sub;
+    private int lo;
+    private int hi;
+    private EdgePool edgePool;
+
+    DelaunayTask(Subdivision sub, int lo, int hi, EdgePool edgePool) {
+      this.sub = sub;
+      this.lo = lo;
+      this.hi = hi;
+      this.edgePool = edgePool;
+    }
+    @Override
+    protected Long compute() {
+      if(hi-lo <= threshold) {
+        return sub.delaunay(lo, hi, edgePool);
+      }
+      // Same split as Subdivision.delaunay(int, int, EdgePool) .
+      int mid = lo + (hi-lo)/2;
+      EdgePool pool1 = sub.splitEdgePool(edgePool, mid);
+      DelaunayTask left = new DelaunayTask(sub, lo, mid, edgePool);
+      left.fork();
+      long right = new DelaunayTask(sub, mid, hi, pool1).compute();
+      long leftEdges = left.join();
+      sub.joinEdgePools(edgePool, pool1);
+      return sub.merge(leftEdges, right, edgePool);
+    }
+  }
+}
@@ -2,227 +2,312 @@ package gmail.pvbemmelen62.delaunay;
 
 import java.util.*;
 
+/**
+ * History DAG of the triangles of DelaunayTriangulation, to find the
+ * triangle containing a new point.
+ * A node is an int id into one int array that holds NODE_SIZE ints per node:
+ * the triangle, being three indices into the points in -z direction with the
+ * smallest first, and the ids of up to three children, NONE where absent.
+ * The array grows as nodes are added, and reset() empties it for the next
+ * triangulation without releasing it.
+ */
 public class PointLocationStructure {
 
-  private Point[] points;
+  /** Id of no node. */
+  public static final int NONE = -1;
+  /** Number of ints per node: triangle plus children. */
+  private static final int NODE_SIZE = 6;
+  private static final int CHILDREN = 3;
+
+  private Coordinates coordinates;
   private int iLargest;
-  public Node top;
-  
-  public class Node {
-    Node[] children;
-    /** Indices into points[] ; triangle orientation: rotation when going from
-     *  points[triangle[j]] for j=0 to j=1 to j=2 to j=0, is in -z direction.
-     *  Smallest value in triangle is at beginning of array.
-     */
-    int[] triangle;
-    public Node() {
-      this.children = null;
-    }
-    public Node(int p0, int p1, int p2) {
-      this();
-      triangle = new int[] {p0, p1, p2};
-    }
-    public Node(int[] triangle) {
-      this();
-      this.triangle = triangle;
-    }
-    @Override
-    public String toString() {
-      return "Node [children=" + Arrays.toString(children) + ", triangle="
-          + Arrays.toString(triangle) + "]";
-    }
-    public Node[] findContainingChildren(Point p) {
-      if(children==null) {
-        return null;
-      }
-      if(children.length==2) {
-        return findContainingChildren(children[0], children[1], p);
-      }
-      else if(children.length==3) {
-        Node[] ns01 = findContainingChildren(children[0], children[1], p);
-        Node[] ns12 = findContainingChildren(children[1], children[2], p);
-        Node[] ns20 = findContainingChildren(children[2], children[0], p);
-        int[] childCounts = {0,0,0};
-        for(Node[] nds : new Node[][] { ns01, ns12, ns20 }) {
-          for(Node nd : nds) {
-            ++childCounts[childIndex(nd)];
-          }
-        }
-        int[] indices = new int[3];
-        int numIndices = childIndices(childCounts, 2, indices);
-        if(numIndices==1) {
-          return new Node[] { children[indices[0]] };
-        }
-        else if(numIndices==2) {
-          return new Node[] { children[indices[0]], children[indices[1]] };
-        }
-        else { // probably due to two equal points in input.
-          throw new IllegalStateException("Unexpected numIndices: "
-            + numIndices);
-        }
+  /** Node n is nodes[NODE_SIZE*n .. NODE_SIZE*n+NODE_SIZE-1] . */
+  private int[] nodes;
+  private int numNodes;
+  /** The node of triangle {-2,iLargest,-1} . */
+  public int top;
+  /** Used by findContainingLeafNodes(double, double) . */
+  private Descent descent = new Descent();
+
+  /**
+   * Scratch space of findContainingLeafNodes(double, double, Descent) , so
+   * that locating a point creates no objects. A Descent may be reused for
+   * any number of queries, but by one thread at a time.
+   */
+  public static class Descent {
+    /** The leaf nodes found are leaves[0..numLeaves-1] . */
+    public final int[] leaves = new int[2];
+    public int numLeaves;
+    private int[] stack = new int[16];
+    private int stackSize;
+    /** First children of nodes with two children descended into so far;
+     *  flipEdge gives two nodes the same children. */
+    private int[] visited = new int[16];
+    private int numVisited;
+
+    private void push(int node) {
+      if(stackSize==stack.length) {
+        stack = Arrays.copyOf(stack, 2*stackSize);
       }
-      throw new IllegalStateException("Unexpected children.length: "
-          + children.length);
+      stack[stackSize++] = node;
     }
-    /**
-     * Returns the number of entries in <code>childCounts</code> that are
-     * equal to <code>count</code>.
-     * The array <code>indices</code> upon return will contain the indices of
-     * childCounts for which this is true. The client must pass in this array
-     * of sufficient length.
-     */
-    protected int childIndices(int[] childCounts, int count, int[] indices) {
-      int numIndices = 0;
-      for(int i=0; i<childCounts.length; ++i) {
-        if(childCounts[i]==count) {
-          indices[numIndices++] = i;
+    /** Returns false if the children starting with child were visited
+     *  already. */
+    private boolean visit(int child) {
+      for(int i=0; i<numVisited; ++i) {
+        if(visited[i]==child) {
+          return false;
         }
       }
-      return numIndices;
-    }
-    protected int childIndex(Node child) {
-      if(children[0]==child) {
-        return 0;
-      }
-      else if(children[1]==child) {
-        return 1;
+      if(numVisited==visited.length) {
+        visited = Arrays.copyOf(visited, 2*numVisited);
       }
-      else if(children[2]==child) {
-        return 2;
-      }
-      return -1;
+      visited[numVisited++] = child;
+      return true;
     }
-    /** Boundary of node0.triangle and node1.triangle decides which one/two
-     *  contain points[pointIndex] .*/
-    protected Node[] findContainingChildren(Node node0, Node node1,
-        Point p) {
-      int[] tri0 = node0.triangle;
-      int[] tri1 = node1.triangle;
-      int[] commons = Triangle.findCommonPoints(tri0, tri1);
-      Comparator<Point> comparator = DelaunayTriangulation.yThenXComparator;
-      Util.myAssert(!(commons[0]<0 && commons[1]<0));
-      if(tri0[commons[0]]==-2) {
-        Point q = points[tri0[commons[1]]];
-        // NB: line from -2 to q is very near horizontal because -2 has very
-        //   neg x coord.
-        int cmp = comparator.compare(p,q);
-        Util.myAssert(cmp!=0);
-        // p lies in tri0 <==> -2 to q to p is rotation in -z-direction
-        if(cmp<0) {
-          // -2 to q to p is in -z-direction
-          return new Node[] { node0 };
-        }
-        else {
-          return new Node[] { node1 };
+    private void addLeaf(int node) {
+      for(int i=0; i<numLeaves; ++i) {
+        if(leaves[i]==node) {
+          return;
         }
       }
-      else if(tri0[commons[1]]==-2) {
-        Point q = points[tri0[commons[0]]];
-        int cmp = comparator.compare(p,q);
-        Util.myAssert(cmp!=0);
-        // p lies in tri0 <==> q to -2 to p is rotation in -z-direction
-        if(cmp>0) {
-          // q to -2 to p is in -z-direction
-          return new Node[] { node0 };
-        }
-        else {
-          return new Node[] { node1 };
-        }
-      }
-      if(tri0[commons[0]]==-1) {
-        Point q = points[tri0[commons[1]]];
-        // NB: line from -1 to q is very near horizontal because -1 has very
-        //   large x coord.
-        int cmp = comparator.compare(p,q);
-        Util.myAssert(cmp!=0);
-        // p lies in tri0 <==> -1 to q to p is rotation in -z-direction
-        if(cmp>0) {
-          // -1 to q to p is in -z-direction
-          return new Node[] { node0 };
-        }
-        else {
-          return new Node[] { node1 };
-        }
-      }
-      else if(tri0[commons[1]]==-1) {
-        Point q = points[tri0[commons[0]]];
-        // NB: line from q to -1 is very near horizontal because -1 has very
-        //   large x coord.
-        int cmp = comparator.compare(p,q);
-        Util.myAssert(cmp!=0);
-        // p lies in tri0 <==> q to -1 to p is rotation in -z-direction
-        if(cmp<0) {
-          // q to -1 to p is in -z-direction
-          return new Node[] { node0 };
-        }
-        else {
-          return new Node[] { node1 };
-        }
-      }
-      int hpp = Triangle.getOrientation(
-          points[tri0[commons[0]]], points[tri0[commons[1]]], p);
-      if(hpp==1) {
-        return new Node[] {node1};
-      }
-      else if(hpp==-1) {
-        return new Node[] {node0};
-      }
-      else {
-        return new Node[] {node0, node1};
+      if(numLeaves==2) {
+        throw new IllegalStateException("More than 2 containing leaf nodes.");
       }
+      leaves[numLeaves++] = node;
     }
   }
   /** Creates a PointLocationStructure containing only the top node consisting
-   * of triangle {-2,0,-1}.
-   * @param points points of triangulation; points[0] must be largest according
-   *   to DelaunayTriangulation.yThenXComparator.
+   * of triangle {-2,iLargest,-1}.
+   * @param coordinates points of triangulation.
+   * @param iLargest index of the largest point according to
+   *   DelaunayTriangulation.yThenXComparator.
+   */
+  public PointLocationStructure(Coordinates coordinates, int iLargest) {
+    nodes = new int[NODE_SIZE * 16];
+    reset(coordinates, iLargest);
+  }
+  /**
+   * Removes all nodes, keeping the arrays for reuse, and creates the top
+   * node for a triangulation of coordinates.
    */
-  public PointLocationStructure(Point[] points, int iLargest) {
-    this.points = points;
+  public void reset(Coordinates coordinates, int iLargest) {
+    this.coordinates = coordinates;
     this.iLargest = iLargest;
-    top = new Node();
-    top.triangle = new int[] {-2, iLargest, -1};
+    numNodes = 0;
+    top = newNode(-2, iLargest, -1);
+  }
+  /** Makes room for numNodes nodes in total, so that adding them does not
+   *  copy the arrays. */
+  public void ensureCapacity(int numNodes) {
+    if(NODE_SIZE*(long)numNodes > nodes.length) {
+      nodes = Arrays.copyOf(nodes, NODE_SIZE*numNodes);
+    }
+  }
+  /**
+   * Keeps only the first numNodes nodes, which must be the nodes created up
+   * to some insertion: nodes whose children are dropped become leaves.
+   * Those leaves are triangles of an earlier triangulation, so
+   * findContainingLeafNodes then finds a triangle near (x,y) rather than one
+   * of the current triangulation. Shrinks the array to fit.
+   */
+  public void prune(int numNodes) {
+    // Children are created after their parent, by one split or flip, so
+    // either all or none of them are dropped.
+    for(int b=CHILDREN; b<NODE_SIZE*numNodes; b+=NODE_SIZE) {
+      if(nodes[b]>=numNodes) {
+        nodes[b] = NONE;
+        nodes[b+1] = NONE;
+        nodes[b+2] = NONE;
+      }
+    }
+    this.numNodes = numNodes;
+    nodes = Arrays.copyOf(nodes, NODE_SIZE*numNodes);
+  }
+  /** Number of nodes created since the last reset. */
+  public int getNumNodes() {
+    return numNodes;
+  }
+  /** Index of point i of the triangle of node, for i in 0..2 . */
+  public int vertex(int node, int i) {
+    return nodes[NODE_SIZE*node + i];
+  }
+  /** Child i of node, or NONE. */
+  public int child(int node, int i) {
+    return nodes[NODE_SIZE*node + CHILDREN + i];
   }
-  /** Returns array of nodes that contain point p.
+  public boolean isLeaf(int node) {
+    return nodes[NODE_SIZE*node + CHILDREN]==NONE;
+  }
+  /** Copies the triangle of node into tri, and returns tri. */
+  public int[] getTriangle(int node, int[] tri) {
+    System.arraycopy(nodes, NODE_SIZE*node, tri, 0, 3);
+    return tri;
+  }
+  /** Creates a leaf node of triangle {i0,i1,i2}, in -z direction. */
+  private int newNode(int i0, int i1, int i2) {
+    if(NODE_SIZE*(numNodes+1) > nodes.length) {
+      nodes = Arrays.copyOf(nodes, 2*nodes.length);
+    }
+    int node = numNodes++;
+    int b = NODE_SIZE*node;
+    // Canonical form, as Triangle.toCanonical .
+    if(i0<i1 && i0<i2) {
+      nodes[b] = i0;  nodes[b+1] = i1;  nodes[b+2] = i2;
+    }
+    else if(i1<i2) {
+      nodes[b] = i1;  nodes[b+1] = i2;  nodes[b+2] = i0;
+    }
+    else {
+      nodes[b] = i2;  nodes[b+1] = i0;  nodes[b+2] = i1;
+    }
+    nodes[b+CHILDREN] = NONE;
+    nodes[b+CHILDREN+1] = NONE;
+    nodes[b+CHILDREN+2] = NONE;
+    return node;
+  }
+  private void setChildren(int node, int c0, int c1, int c2) {
+    int b = NODE_SIZE*node + CHILDREN;
+    nodes[b] = c0;
+    nodes[b+1] = c1;
+    nodes[b+2] = c2;
+  }
+  /**
+   * Returns the children of node that contain (x,y) as a bit set: bit i is
+   * set iff child i contains (x,y), so that two bits are set if (x,y) lies
+   * on their boundary; returns 0 if node is a leaf.
+   */
+  public int findContainingChildren(int node, double x, double y) {
+    int b = NODE_SIZE*node + CHILDREN;
+    int c0 = nodes[b];
+    if(c0==NONE) {
+      return 0;
+    }
+    int c1 = nodes[b+1];
+    int c2 = nodes[b+2];
+    if(c2==NONE) {
+      return findContainingChildren(c0, c1, x, y);
+    }
+    int in01 = findContainingChildren(c0, c1, x, y);
+    int in12 = findContainingChildren(c1, c2, x, y);
+    int in20 = findContainingChildren(c2, c0, x, y);
+    // child i contains (x,y) iff both its boundaries with the other
+    // children say so.
+    int mask = 0;
+    if((in01&1)!=0 && (in20&2)!=0) {
+      mask |= 1;
+    }
+    if((in01&2)!=0 && (in12&1)!=0) {
+      mask |= 2;
+    }
+    if((in12&2)!=0 && (in20&1)!=0) {
+      mask |= 4;
+    }
+    int numChildren = Integer.bitCount(mask);
+    if(numChildren!=1 && numChildren!=2) {
+      // probably due to two equal points in input.
+      throw new IllegalStateException("Unexpected numChildren: "
+          + numChildren);
+    }
+    return mask;
+  }
+  /** Boundary of the triangles of node0 and node1 decides which one/two
+   *  contain (x,y) : returns 1 for node0, 2 for node1, 3 for both.*/
+  protected int findContainingChildren(int node0, int node1,
+      double x, double y) {
+    int b0 = NODE_SIZE*node0;
+    int b1 = NODE_SIZE*node1;
+    // As Triangle.commonEdge .
+    int count = 0;
+    int missing = -1;
+    for(int i=0; i<3; ++i) {
+      int p = nodes[b0+i];
+      if(p==nodes[b1] || p==nodes[b1+1] || p==nodes[b1+2]) {
+        ++count;
+      }
+      else {
+        missing = i;
+      }
+    }
+    Util.myAssert(count==2);
+    int i0 = nodes[b0 + (missing+1)%3];
+    int i1 = nodes[b0 + (missing+2)%3];
+    // The triangle of node0 is in -z direction, so it lies in -z direction
+    // of i0 to i1.
+    int orientation = Triangle.getOrientation(coordinates, i0, i1, x, y);
+    if(orientation<0) {
+      return 1;
+    }
+    else if(orientation>0) {
+      return 2;
+    }
+    // Lines through -1 or -2 contain no two points.
+    Util.myAssert(i0>=0 && i1>=0);
+    return 3;
+  }
+  /** Returns the ids of the nodes that contain point p.
    * If p lies internal within the boundary of a node, then the array contains
    * that one node; if p lies on the boundary of two nodes, then the array
    * contains those two nodes.
    */
-  public Node[] findContainingLeafNodes(Point p) {
-    Deque<Node> deque = new LinkedList<>();
-    deque.addLast(top);
-    Node[] leafNodes = new Node[2];
-    int numLeafNodes = 0;
-    while(!deque.isEmpty()) {
-      Node node = deque.removeFirst();
-      Node[] children = node.findContainingChildren(p);
-      if(children==null) {
-        if(numLeafNodes > 1) {
-          // Question: may a leaf node show up more than once ?
-          throw new IllegalStateException("More than 2 containing leaf nodes.");
-        }
-        leafNodes[numLeafNodes++] = node;
+  public int[] findContainingLeafNodes(Point p) {
+    return findContainingLeafNodes(p.x, p.y);
+  }
+  /** @see #findContainingLeafNodes(Point) */
+  public int[] findContainingLeafNodes(double x, double y) {
+    int numLeaves = findContainingLeafNodes(x, y, descent);
+    return Arrays.copyOf(descent.leaves, numLeaves);
+  }
+  /**
+   * Finds the one or two leaf nodes that contain (x,y) , as
+   * findContainingLeafNodes(Point) does, and puts them in descent.leaves .
+   * Descends along a single path while (x,y) lies inside one child; only if
+   * it lies on the boundary of two, both are descended into, using the stack
+   * of descent.
+   * @return the number of leaf nodes found.
+   */
+  public int findContainingLeafNodes(double x, double y, Descent descent) {
+    Descent d = descent;
+    d.numLeaves = 0;
+    d.numVisited = 0;
+    d.stackSize = 0;
+    boolean branched = false;
+    int node = top;
+    while(true) {
+      int mask = findContainingChildren(node, x, y);
+      if(mask==0) {
+        d.addLeaf(node);
       }
       else {
-        for(Node child : children) {
-          deque.addLast(child);
+        int b = NODE_SIZE*node + CHILDREN;
+        boolean twoChildren = nodes[b+2]==NONE;
+        // Before the first branch there is one path, visiting no node twice.
+        if(!branched || !twoChildren || d.visit(nodes[b])) {
+          if((mask&(mask-1))==0) {
+            node = nodes[b + Integer.numberOfTrailingZeros(mask)];
+            continue;
+          }
+          branched = true;
+          if(twoChildren) {
+            d.visit(nodes[b]);
+          }
+          for(int i=2; i>=0; --i) {
+            if((mask & (1<<i))!=0) {
+              d.push(nodes[b+i]);
+            }
+          }
         }
       }
+      if(d.stackSize==0) {
+        break;
+      }
+      node = d.stack[--d.stackSize];
     }
-    if(numLeafNodes==0) {
+    if(d.numLeaves==0) {
       throw new IllegalStateException("No containing leaf nodes found.");
     }
-    else if(numLeafNodes==1) {
-      return new Node[] { leafNodes[0] };
-    }
-    else /* if(numLeafNodes==2) */ {
-      return leafNodes;
-    }
+    return d.numLeaves;
   }
-//  private boolean equalEdges(int[] e0, int[] e1) {
-//    return (e0[0]==e1[0] && e0[1]==e1[1])
-//        || (e0[0]==e1[1] && e0[1]==e1[0]);
-//  }
   /**
    * Splits <code>node</code> because it contains the new point
    * <code>pointIndex</code>, and creates new nodes as children of node.
@@ -233,16 +318,15 @@ public class PointLocationStructure {
    *   i3 : pointIndex
    * @param pointIndex
    */
-  public void splitContainingLeafNode(Node node, int pointIndex) {
-    int[] tri = node.triangle;
-    node.children = new Node[3];
-    for(int i=0; i<3; ++i) {
-      Node child = new Node();
-      int[] ctri = { tri[i], tri[(i+1)%3], pointIndex };
-      Triangle.toCanonical(ctri);
-      child.triangle = ctri;
-      node.children[i] = child;
-    }
+  public void splitContainingLeafNode(int node, int pointIndex) {
+    int b = NODE_SIZE*node;
+    int i0 = nodes[b];
+    int i1 = nodes[b+1];
+    int i2 = nodes[b+2];
+    int c0 = newNode(i0, i1, pointIndex);
+    int c1 = newNode(i1, i2, pointIndex);
+    int c2 = newNode(i2, i0, pointIndex);
+    setChildren(node, c0, c1, c2);
   }
  /**
   * Splits node0 with triangle {i0,i1,i2} or a rotation of this, and node1 with
@@ -258,33 +342,39 @@ public class PointLocationStructure {
   * @see Fig 9.7 in Computational Geometry - Algorithms and Applications,
   *  3rd Ed. , page 200
   */
-  public void splitContainingLeafNodes(Node node0, Node node1, int i4) {
-    int[][] tris = { node0.triangle, node1.triangle} ;
-    int[] commons = Triangle.findCommonPoints(tris[0], tris[1]);
-    int i0 = tris[0][commons[0]];
-    int i1 = tris[0][commons[1]];
-    int i2 = tris[0][Triangle.nonCommon(commons)];
-    int i3 = tris[1][Triangle.theOtherPoint(tris[1], new int[] {i0,i1})];
+  public void splitContainingLeafNodes(int node0, int node1, int i4) {
+    int b0 = NODE_SIZE*node0;
+    int b1 = NODE_SIZE*node1;
+    int missing = 0;
+    for(int i=0; i<3; ++i) {
+      int p = nodes[b0+i];
+      if(p!=nodes[b1] && p!=nodes[b1+1] && p!=nodes[b1+2]) {
+        missing = i;
+      }
+    }
+    int i0 = nodes[b0 + (missing+1)%3];
+    int i1 = nodes[b0 + (missing+2)%3];
+    int i2 = nodes[b0 + missing];
+    int i3 = nodes[b1];
+    for(int i=1; i<3; ++i) {
+      if(i3==i0 || i3==i1) {
+        i3 = nodes[b1+i];
+      }
+    }
 
-    Node[] children;
-    //
-    children = new Node[] { new Node(), new Node() };
-    children[0].triangle = Triangle.toCanonical(new int[] { i0,i4,i2 });
-    children[1].triangle = Triangle.toCanonical(new int[] { i4,i1,i2 });
-    node0.children = children;
-    //
-    children = new Node[] { new Node(), new Node() };
-    children[0].triangle = Triangle.toCanonical(new int[] { i1,i4,i3 });
-    children[1].triangle = Triangle.toCanonical(new int[] { i4,i0,i3 });
-    node1.children = children;
+    setChildren(node0, newNode(i0, i4, i2), newNode(i4, i1, i2), NONE);
+    setChildren(node1, newNode(i1, i4, i3), newNode(i4, i0, i3), NONE);
   }
-  public Node[] flipEdge(Node node0, Node node1, int[] tri0, int[] tri1) {
-    Node nodeNew0 = new Node(tri0);
-    Node nodeNew1 = new Node(tri1);
-    Node[] children = new Node[]{nodeNew0, nodeNew1};
-    node0.children = children;
-    node1.children = children;
-    return children;
+  /**
+   * Replaces node0 and node1, the triangles of a flipped edge, by new nodes
+   * for triangles tri0 and tri1, which become the children of both.
+   * @return the node of tri0; the node of tri1 is that plus 1.
+   */
+  public int flipEdge(int node0, int node1, int[] tri0, int[] tri1) {
+    int nodeNew0 = newNode(tri0[0], tri0[1], tri0[2]);
+    int nodeNew1 = newNode(tri1[0], tri1[1], tri1[2]);
+    setChildren(node0, nodeNew0, nodeNew1, NONE);
+    setChildren(node1, nodeNew0, nodeNew1, NONE);
+    return nodeNew0;
   }
-  
 }
@@ -0,0 +1,323 @@
+package gmail.pvbemmelen62.delaunay;
+
+/**
+ * Orientation and incircle tests with exact results.
+ * A test first evaluates its determinant in floating point, and returns its
+ * sign if the determinant exceeds a static bound on the rounding error; this
+ * decides nearly all calls. Otherwise the determinant is evaluated exactly
+ * with floating point expansions, from the coordinate differences if those
+ * are exact, and from the coordinates otherwise. The expansions are built in
+ * buffers of the calling thread, so that no test allocates, also not for
+ * the cocircular and collinear points of a grid.
+ * @see Shewchuk - Adaptive precision floating-point arithmetic and fast
+ *   robust geometric predicates, 1997
+ */
+public class Predicates {
+
+  /** Half the distance from 1.0 to the next double: 2^-53 . */
+  private static final double EPSILON = Math.ulp(1.0) / 2;
+  private static final double ORIENT_BOUND = (3 + 16*EPSILON) * EPSILON;
+  private static final double INCIRCLE_BOUND = (10 + 96*EPSILON) * EPSILON;
+
+  /** Buffers for the expansions of the exact evaluations, sized for their
+   *  largest lengths. */
+  private static class Workspace {
+    final double[] ab = new double[4];
+    final double[] bc = new double[4];
+    final double[] cd = new double[4];
+    final double[] da = new double[4];
+    final double[] ac = new double[4];
+    final double[] bd = new double[4];
+    final double[] temp8 = new double[8];
+    final double[] cda = new double[12];
+    final double[] dab = new double[12];
+    final double[] abc = new double[12];
+    final double[] bcd = new double[12];
+    final double[] aDet = new double[96];
+    final double[] bDet = new double[96];
+    final double[] cDet = new double[96];
+    final double[] dDet = new double[96];
+    final double[] abDet = new double[192];
+    final double[] cdDet = new double[192];
+    final double[] det = new double[384];
+    /** Scratch space of lift. */
+    final double[] e24 = new double[24];
+    final double[] e48x = new double[48];
+    final double[] e48y = new double[48];
+  }
+  private static final ThreadLocal<Workspace> WORKSPACE =
+      ThreadLocal.withInitial(Workspace::new);
+
+  /**
+   * Returns 1 if orientation a,b,c is in +z direction (counterclockwise),
+   * -1 if in -z direction, 0 if a,b,c are collinear.
+   */
+  public static int orient2d(double ax, double ay, double bx, double by,
+      double cx, double cy) {
+    double detLeft = (ax-cx) * (by-cy);
+    double detRight = (ay-cy) * (bx-cx);
+    double det = detLeft - detRight;
+    double detSum;
+    // If the two terms differ in sign, there is no cancellation.
+    if(detLeft > 0) {
+      if(detRight <= 0) {
+        return signum(det);
+      }
+      detSum = detLeft + detRight;
+    }
+    else if(detLeft < 0) {
+      if(detRight >= 0) {
+        return signum(det);
+      }
+      detSum = -detLeft - detRight;
+    }
+    else {
+      return signum(det);
+    }
+    double bound = ORIENT_BOUND * detSum;
+    if(det > bound || -det > bound) {
+      return signum(det);
+    }
+    double acx = ax-cx;
+    double acy = ay-cy;
+    double bcx = bx-cx;
+    double bcy = by-cy;
+    if(twoDiffTail(ax, cx, acx)==0 && twoDiffTail(ay, cy, acy)==0
+        && twoDiffTail(bx, cx, bcx)==0 && twoDiffTail(by, cy, bcy)==0) {
+      // Exact differences, as for points on a grid.
+      return signum(productDiff(acx, bcy, acy, bcx, WORKSPACE.get().ab), 4);
+    }
+    return orient2dExact(ax, ay, bx, by, cx, cy, WORKSPACE.get());
+  }
+  public static int orient2d(Point a, Point b, Point c) {
+    return orient2d(a.x, a.y, b.x, b.y, c.x, c.y);
+  }
+  /**
+   * Returns 1 if d lies inside the circle through a, b and c, -1 if outside,
+   * 0 if on it, provided a,b,c is in +z direction; the signs swap if it is
+   * in -z direction.
+   */
+  public static int incircle(double ax, double ay, double bx, double by,
+      double cx, double cy, double dx, double dy) {
+    double adx = ax-dx;
+    double ady = ay-dy;
+    double bdx = bx-dx;
+    double bdy = by-dy;
+    double cdx = cx-dx;
+    double cdy = cy-dy;
+    double bdxcdy = bdx * cdy;
+    double cdxbdy = cdx * bdy;
+    double aLift = adx*adx + ady*ady;
+    double cdxady = cdx * ady;
+    double adxcdy = adx * cdy;
+    double bLift = bdx*bdx + bdy*bdy;
+    double adxbdy = adx * bdy;
+    double bdxady = bdx * ady;
+    double cLift = cdx*cdx + cdy*cdy;
+    double det = aLift * (bdxcdy - cdxbdy)
+        + bLift * (cdxady - adxcdy)
+        + cLift * (adxbdy - bdxady);
+    double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy)) * aLift
+        + (Math.abs(cdxady) + Math.abs(adxcdy)) * bLift
+        + (Math.abs(adxbdy) + Math.abs(bdxady)) * cLift;
+    double bound = INCIRCLE_BOUND * permanent;
+    if(det > bound || -det > bound) {
+      return signum(det);
+    }
+    if(twoDiffTail(ax, dx, adx)==0 && twoDiffTail(ay, dy, ady)==0
+        && twoDiffTail(bx, dx, bdx)==0 && twoDiffTail(by, dy, bdy)==0
+        && twoDiffTail(cx, dx, cdx)==0 && twoDiffTail(cy, dy, cdy)==0) {
+      // Exact differences, as for points on a grid.
+      Workspace ws = WORKSPACE.get();
+      int aLength = lift(productDiff(bdx, cdy, cdx, bdy, ws.bc), 4, adx, ady,
+          1, ws.aDet, ws);
+      int bLength = lift(productDiff(cdx, ady, adx, cdy, ws.cd), 4, bdx,
+          bdy, 1, ws.bDet, ws);
+      int cLength = lift(productDiff(adx, bdy, bdx, ady, ws.ab), 4, cdx, cdy,
+          1, ws.cDet, ws);
+      int abLength = sum(ws.aDet, aLength, ws.bDet, bLength, ws.abDet);
+      int finLength = sum(ws.abDet, abLength, ws.cDet, cLength, ws.det);
+      return signum(ws.det, finLength);
+    }
+    return incircleExact(ax, ay, bx, by, cx, cy, dx, dy, WORKSPACE.get());
+  }
+  public static int incircle(Point a, Point b, Point c, Point d) {
+    return incircle(a.x, a.y, b.x, b.y, c.x, c.y, d.x, d.y);
+  }
+  private static int signum(double d) {
+    return d > 0 ? 1 : (d < 0 ? -1 : 0);
+  }
+  /** Returns the sign of expansion e[0..length-1] : that of its largest
+   *  nonzero component. */
+  private static int signum(double[] e, int length) {
+    for(int i=length-1; i>=0; --i) {
+      if(e[i]!=0) {
+        return signum(e[i]);
+      }
+    }
+    return 0;
+  }
+  /*
+   * Exact evaluation with expansions: a sum of doubles, ordered by increasing
+   * magnitude, that do not overlap; the sign of the sum is that of the last
+   * component. The products of coordinates are exact as a double plus its
+   * rounding error, which Math.fma gives. Ported from Shewchuk's
+   * orient2dexact and incircleexact.
+   */
+  private static int orient2dExact(double ax, double ay, double bx,
+      double by, double cx, double cy, Workspace ws) {
+    double[] aTerms = productDiff(ax, by, ax, cy, ws.ab);
+    double[] bTerms = productDiff(bx, cy, bx, ay, ws.bc);
+    double[] cTerms = productDiff(cx, ay, cx, by, ws.cd);
+    double[] v = ws.temp8;
+    int vLength = sum(aTerms, 4, bTerms, 4, v);
+    double[] w = ws.cda;
+    int wLength = sum(v, vLength, cTerms, 4, w);
+    return signum(w, wLength);
+  }
+  private static int incircleExact(double ax, double ay, double bx,
+      double by, double cx, double cy, double dx, double dy, Workspace ws) {
+    double[] ab = productDiff(ax, by, bx, ay, ws.ab);
+    double[] bc = productDiff(bx, cy, cx, by, ws.bc);
+    double[] cd = productDiff(cx, dy, dx, cy, ws.cd);
+    double[] da = productDiff(dx, ay, ax, dy, ws.da);
+    double[] ac = productDiff(ax, cy, cx, ay, ws.ac);
+    double[] bd = productDiff(bx, dy, dx, by, ws.bd);
+    double[] temp8 = ws.temp8;
+    double[] cda = ws.cda;
+    double[] dab = ws.dab;
+    double[] abc = ws.abc;
+    double[] bcd = ws.bcd;
+    int tempLength = sum(cd, 4, da, 4, temp8);
+    int cdaLength = sum(temp8, tempLength, ac, 4, cda);
+    tempLength = sum(da, 4, ab, 4, temp8);
+    int dabLength = sum(temp8, tempLength, bd, 4, dab);
+    for(int i=0; i<4; ++i) {
+      bd[i] = -bd[i];
+      ac[i] = -ac[i];
+    }
+    tempLength = sum(ab, 4, bc, 4, temp8);
+    int abcLength = sum(temp8, tempLength, ac, 4, abc);
+    tempLength = sum(bc, 4, cd, 4, temp8);
+    int bcdLength = sum(temp8, tempLength, bd, 4, bcd);
+    int aLength = lift(bcd, bcdLength, ax, ay, 1, ws.aDet, ws);
+    int bLength = lift(cda, cdaLength, bx, by, -1, ws.bDet, ws);
+    int cLength = lift(dab, dabLength, cx, cy, 1, ws.cDet, ws);
+    int dLength = lift(abc, abcLength, dx, dy, -1, ws.dDet, ws);
+    int abLength = sum(ws.aDet, aLength, ws.bDet, bLength, ws.abDet);
+    int cdLength = sum(ws.cDet, cLength, ws.dDet, dLength, ws.cdDet);
+    int detLength = sum(ws.abDet, abLength, ws.cdDet, cdLength, ws.det);
+    return signum(ws.det, detLength);
+  }
+  /** Sets h to sign*(x*x+y*y)*e , returning the length of h; e may have up
+   *  to 12 components. */
+  private static int lift(double[] e, int eLength, double x, double y,
+      int sign, double[] h, Workspace ws) {
+    double[] e24 = ws.e24;
+    double[] e48x = ws.e48x;
+    double[] e48y = ws.e48y;
+    int xLength = scale(e, eLength, x, e24);
+    xLength = scale(e24, xLength, sign*x, e48x);
+    int yLength = scale(e, eLength, y, e24);
+    yLength = scale(e24, yLength, sign*y, e48y);
+    return sum(e48x, xLength, e48y, yLength, h);
+  }
+  /** Sets x to a*b - c*d , an expansion of 4 components; returns x. */
+  private static double[] productDiff(double a, double b, double c,
+      double d, double[] x) {
+    double ab1 = a*b;
+    double ab0 = Math.fma(a, b, -ab1);
+    double cd1 = c*d;
+    double cd0 = Math.fma(c, d, -cd1);
+    // Two_Two_Diff(ab1, ab0, cd1, cd0)
+    double i = ab0 - cd0;
+    x[0] = twoDiffTail(ab0, cd0, i);
+    double j = ab1 + i;
+    double z = twoSumTail(ab1, i, j);
+    i = z - cd1;
+    x[1] = twoDiffTail(z, cd1, i);
+    x[3] = j + i;
+    x[2] = twoSumTail(j, i, x[3]);
+    return x;
+  }
+  /** Returns the rounding error of x = a+b . */
+  private static double twoSumTail(double a, double b, double x) {
+    double bVirt = x - a;
+    double aVirt = x - bVirt;
+    return (a - aVirt) + (b - bVirt);
+  }
+  /** Returns the rounding error of x = a-b . */
+  private static double twoDiffTail(double a, double b, double x) {
+    double bVirt = a - x;
+    double aVirt = x + bVirt;
+    return (a - aVirt) + (bVirt - b);
+  }
+  /** Sets h to e+f , omitting zero components; returns the length of h. */
+  private static int sum(double[] e, int eLength, double[] f, int fLength,
+      double[] h) {
+    int ei = 0;
+    int fi = 0;
+    double eNow = e[0];
+    double fNow = f[0];
+    double q;
+    if((fNow > eNow) == (fNow > -eNow)) {
+      q = eNow;
+      eNow = ++ei < eLength ? e[ei] : 0;
+    }
+    else {
+      q = fNow;
+      fNow = ++fi < fLength ? f[fi] : 0;
+    }
+    int hi = 0;
+    while(ei < eLength || fi < fLength) {
+      double next;
+      if(fi==fLength
+          || (ei < eLength && (fNow > eNow) == (fNow > -eNow))) {
+        next = eNow;
+        eNow = ++ei < eLength ? e[ei] : 0;
+      }
+      else {
+        next = fNow;
+        fNow = ++fi < fLength ? f[fi] : 0;
+      }
+      double qNew = q + next;
+      double hh = twoSumTail(q, next, qNew);
+      q = qNew;
+      if(hh!=0) {
+        h[hi++] = hh;
+      }
+    }
+    if(q!=0 || hi==0) {
+      h[hi++] = q;
+    }
+    return hi;
+  }
+  /** Sets h to b*e , omitting zero components; returns the length of h. */
+  private static int scale(double[] e, int eLength, double b, double[] h) {
+    double q = e[0]*b;
+    double hh = Math.fma(e[0], b, -q);
+    int hi = 0;
+    if(hh!=0) {
+      h[hi++] = hh;
+    }
+    for(int i=1; i<eLength; ++i) {
+      double product1 = e[i]*b;
+      double product0 = Math.fma(e[i], b, -product1);
+      double sum = q + product0;
+      hh = twoSumTail(q, product0, sum);
+      if(hh!=0) {
+        h[hi++] = hh;
+      }
+      q = product1 + sum;
+      // Fast_Two_Sum(product1, sum) : |product1| >= |sum|
+      hh = sum - (q - product1);
+      if(hh!=0) {
+        h[hi++] = hh;
+      }
+    }
+    if(q!=0 || hi==0) {
+      h[hi++] = q;
+    }
+    return hi;
+  }
+}
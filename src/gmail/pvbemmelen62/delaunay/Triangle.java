@@ -12,30 +12,31 @@ public class Triangle {
    *   points.
    */
   public static int[] findCommonPoints(int[] triangle0, int[] triangle1) {
-    int[] equals = {-1,-1,-1};
-    for(int i=0; i<3; ++i) {
-      for(int j=0; j<3; ++j) {
-        if(triangle0[i]==triangle1[j]) {
-          equals[i] = j;
-          break;
-        }
-      }
-    }
+    int i = commonEdge(triangle0, triangle1);
+    return new int[] {i, (i+1)%3};
+  }
+  /**
+   * Returns i such that triangle0[i] and triangle0[(i+1)%3] form the
+   * boundary between triangle0 and triangle1; as findCommonPoints, without
+   * creating an array.
+   * @throws AssertionError if triangles do not share exactly 2 common
+   *   points.
+   */
+  public static int commonEdge(int[] triangle0, int[] triangle1) {
     int count = 0;
+    int missing = -1;
     for(int i=0; i<3; ++i) {
-      if(equals[i] != -1) {
+      int p = triangle0[i];
+      if(p==triangle1[0] || p==triangle1[1] || p==triangle1[2]) {
         ++count;
       }
+      else {
+        missing = i;
+      }
     }
     Util.myAssert(count==2);
     // 0,1  or 1,2  or 2,0  of triangle0 form the common boundary
-    if(equals[1]==-1) {
-      return new int[]{2,0};
-    }
-    if(equals[0]>-1) {
-      return new int[] {0,1};
-    }
-    return new int[] {1,2};
+    return (missing+1)%3;
   }
   /** Returns (commons[0]+2)%3 , thus {0,1}-&gt;2 , {1,2}-&gt;0, {2,0}-&gt;1 . */
   public static int nonCommon(int[] commons) {
@@ -82,13 +83,43 @@ public class Triangle {
    *  -1 if in -z direction, 0 if p0,p1,p2 are colinear.
    *  p0,p1,p2 is in +z direction =def=
    *  outerProduct(p1-p0,p2-p1) > 1 
+   *  @see Predicates#orient2d(Point, Point, Point)
    */
   public static int getOrientation(Point p0, Point p1, Point p2) {
-    Point p01 = p1.subtract(p0);
-    Point p12 = p2.subtract(p1);
-    double outerProd = outerProduct(p01, p12);
-    int rv = outerProd > 0 ? 1 : (outerProd < 0 ? -1 : 0);
-    return rv;
+    return Predicates.orient2d(p0, p1, p2);
+  }
+  /** Returns the orientation of points i0, i1 and (x,y), as
+   *  getOrientation(Point, Point, Point) does, where i0 and i1 may also be
+   *  the special vertices -1 and -2 .
+   *  Vertex -2 lies far to the left above all points, and vertex -1 far to
+   *  the right below all points, so that a line through one of them and a
+   *  point q is very near horizontal, and orientations with respect to it
+   *  follow from comparing (x,y) with q using
+   *  DelaunayTriangulation.yThenXComparator .
+   */
+  public static int getOrientation(Coordinates coords, int i0, int i1,
+      double x, double y) {
+    if(i0>=0 && i1>=0) {
+      return coords.orient2d(i0, i1, x, y);
+    }
+    if(i0<0 && i1<0) {
+      // all points lie in -z direction of -1 to -2 .
+      return i0==-1 ? -1 : 1;
+    }
+    if(i0==-2) {
+      // -2 to q to p is in -z-direction <==> p < q
+      return coords.compareYThenX(x, y, i1);
+    }
+    else if(i1==-2) {
+      return -coords.compareYThenX(x, y, i0);
+    }
+    else if(i0==-1) {
+      // -1 to q to p is in -z-direction <==> p > q
+      return -coords.compareYThenX(x, y, i1);
+    }
+    else {
+      return coords.compareYThenX(x, y, i0);
+    }
   }
   public static double outerProduct(Point p, Point q) {
     double rv = p.x * q.y - p.y * q.x;
@@ -0,0 +1,27 @@
+package gmail.pvbemmelen62.delaunay;
+
+import gmail.pvbemmelen62.delaunay.dcel.*;
+
+/**
+ * Algorithm that calculates the Delaunay triangulation of points, so that
+ * callers can choose the algorithm that suits their data.
+ * All implementations create a Dcel with the special vertices -1 and -2, as
+ * DelaunayTriangulation does.
+ */
+public interface Triangulator {
+
+  /**
+   * Calculates the Delaunay triangulation.
+   * @param points The points for which to create the triangulation; no two
+   *   points may be equal.
+   */
+  public default Dcel triangulate(Point[] points) {
+    return triangulate(Coordinates.of(points));
+  }
+  /**
+   * Calculates the Delaunay triangulation, reading the coordinates in place.
+   * @param coordinates The points for which to create the triangulation; no
+   *   two points may be equal.
+   */
+  public Dcel triangulate(Coordinates coordinates);
+}
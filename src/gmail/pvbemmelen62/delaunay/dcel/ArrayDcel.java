@@ -0,0 +1,277 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+
+/**
+ * Struct-of-arrays counterpart of Dcel.
+ * Halfedges are stored in groups of three per triangle: halfedges 3*t,
+ * 3*t+1 and 3*t+2 form triangle t, in -z direction. So next, prev and face
+ * follow from the halfedge number, and only twin and origin need an int
+ * array. Splits and flips overwrite the triangles they replace, so the
+ * arrays never contain dead halfedges.
+ * <p>
+ * Triangle 0 is the outer face {-2,-1,iLargest}; its faceNode is -1.
+ */
+public class ArrayDcel {
+
+  protected Coordinates coordinates;
+  protected int iLargest;
+  /** twin[h] : twin of halfedge h. */
+  protected int[] twin;
+  /** origin[h] : index of the origin vertex of halfedge h. */
+  protected int[] origin;
+  /** vertexEdge[i+2] : a halfedge with origin i, for i in -2..n-1 . */
+  protected int[] vertexEdge;
+  /** The corresponding node in PointLocationStructure for triangle t, or
+   * -1 if t is the outer face.
+   */
+  protected int[] faceNode;
+  protected int numTriangles;
+
+  public static int next(int h) {
+    return h%3==2 ? h-2 : h+1;
+  }
+  public static int prev(int h) {
+    return h%3==0 ? h+2 : h-1;
+  }
+  public static int face(int h) {
+    return h/3;
+  }
+  public ArrayDcel(Coordinates coordinates, int iLargest) {
+    this.coordinates = coordinates;
+    this.iLargest = iLargest;
+    // Each inserted point adds two triangles to the initial two.
+    int maxTriangles = Math.max(2, 2*coordinates.size());
+    twin = new int[3*maxTriangles];
+    origin = new int[3*maxTriangles];
+    vertexEdge = new int[coordinates.size()+2];
+    faceNode = new int[maxTriangles];
+    Arrays.fill(faceNode, -1);
+    // outer face {-2,-1,L} and top triangle {-2,L,-1}
+    int tOuter = newTriangle(-2, -1, iLargest);
+    int tTop = newTriangle(-2, iLargest, -1);
+    linkTwins(3*tOuter, 3*tTop+2);
+    linkTwins(3*tOuter+1, 3*tTop+1);
+    linkTwins(3*tOuter+2, 3*tTop);
+    setVertexEdge(-2, 3*tTop);
+    setVertexEdge(iLargest, 3*tTop+1);
+    setVertexEdge(-1, 3*tTop+2);
+  }
+  public int twin(int h) {
+    return twin[h];
+  }
+  public int origin(int h) {
+    return origin[h];
+  }
+  public int getFaceNode(int t) {
+    return faceNode[t];
+  }
+  /** Drops the links of the triangles to their nodes in
+   *  PointLocationStructure; getFaceNode may not be called afterwards. */
+  public void releaseFaceNodes() {
+    faceNode = null;
+  }
+  public void setFaceNode(int t, int node) {
+    faceNode[t] = node;
+  }
+  public int getNumTriangles() {
+    return numTriangles;
+  }
+  protected int newTriangle(int i0, int i1, int i2) {
+    int t = numTriangles++;
+    setTriangle(t, i0, i1, i2);
+    return t;
+  }
+  protected void setTriangle(int t, int i0, int i1, int i2) {
+    origin[3*t] = i0;
+    origin[3*t+1] = i1;
+    origin[3*t+2] = i2;
+  }
+  protected void linkTwins(int h0, int h1) {
+    twin[h0] = h1;
+    twin[h1] = h0;
+  }
+  protected void setVertexEdge(int i, int h) {
+    vertexEdge[i+2] = h;
+  }
+  /** Returns the halfedge {i0, i1}, or -1 if it doesn't exist. */
+  public int getHalfEdge(int i0, int i1) {
+    int h0 = vertexEdge[i0+2];
+    int h = h0;
+    while(origin[twin[h]] != i1) {
+      h = next(twin[h]);
+      if(h == h0) {
+        return -1;
+      }
+    }
+    return h;
+  }
+  /**
+   * Split triangle tri in three triangles by adding a point.
+   * The triangle containing tri is reused for {i0,i1,i3}.
+   * @param tri triangle to be split; defines i0,i1,i2 to be its elements.
+   * @param pointIndex; i3 is defined equal to pointIndex.
+   * @return h30 halfedge from v3 to v0, part of triangle {i3,i0,i1}.
+   * @see Dcel#splitTriangle(int[], int)
+   */
+  public int splitTriangle(int[] tri, int pointIndex) {
+    int i0 = tri[0];
+    int i1 = tri[1];
+    int i2 = tri[2];
+    int i3 = pointIndex;
+    int h01 = getHalfEdge(i0, i1);
+    int tw01 = twin[h01];
+    int tw12 = twin[next(h01)];
+    int tw20 = twin[prev(h01)];
+    int t013 = face(h01);
+    setTriangle(t013, i0, i1, i3);
+    int t123 = newTriangle(i1, i2, i3);
+    int t203 = newTriangle(i2, i0, i3);
+    linkTwins(3*t013, tw01);
+    linkTwins(3*t123, tw12);
+    linkTwins(3*t203, tw20);
+    linkTwins(3*t013+1, 3*t123+2);
+    linkTwins(3*t123+1, 3*t203+2);
+    linkTwins(3*t203+1, 3*t013+2);
+    setVertexEdge(i0, 3*t013);
+    setVertexEdge(i1, 3*t123);
+    setVertexEdge(i2, 3*t203);
+    setVertexEdge(i3, 3*t013+2);
+    return 3*t013+2;
+  }
+  /**
+   * Splits triangles tri0, being {i0,i1,i2} or a rotation of this, and tri1,
+   * being {i1,i0,i3} or a rotation of this, because edges {i0,i1} and {i1,i0}
+   * are split by the new point i4.
+   * Reuses the two triangles and adds two more, for the new triangles
+   * <ul>
+   *   <li>{i0,i4,i2}</li>
+   *   <li>{i4,i1,i2}</li>
+   *   <li>{i1,i4,i3}</li>
+   *   <li>{i4,i0,i3}</li>
+   * </ul>
+   * @return h04
+   * @see Dcel#splitTriangles(int[], int[], int)
+   */
+  public int splitTriangles(int[] tri0, int[] tri1, int i4) {
+    int[] commons = Triangle.findCommonPoints(tri0, tri1);
+    int i0 = tri0[commons[0]];
+    int i1 = tri0[commons[1]];
+    int i2 = tri0[Triangle.nonCommon(commons)];
+    int i3 = tri1[Triangle.theOtherPoint(tri1, new int[] {i0,i1})];
+
+    int h01 = getHalfEdge(i0, i1);
+    int h10 = twin[h01];
+    int tw12 = twin[next(h01)];
+    int tw20 = twin[prev(h01)];
+    int tw03 = twin[next(h10)];
+    int tw31 = twin[prev(h10)];
+    int t042 = face(h01);
+    int t143 = face(h10);
+    setTriangle(t042, i0, i4, i2);
+    setTriangle(t143, i1, i4, i3);
+    int t412 = newTriangle(i4, i1, i2);
+    int t403 = newTriangle(i4, i0, i3);
+    linkTwins(3*t042+2, tw20);
+    linkTwins(3*t412+1, tw12);
+    linkTwins(3*t143+2, tw31);
+    linkTwins(3*t403+1, tw03);
+    linkTwins(3*t042, 3*t403);
+    linkTwins(3*t042+1, 3*t412+2);
+    linkTwins(3*t143, 3*t412);
+    linkTwins(3*t143+1, 3*t403+2);
+    setVertexEdge(i0, 3*t042);
+    setVertexEdge(i1, 3*t143);
+    setVertexEdge(i2, 3*t042+2);
+    setVertexEdge(i3, 3*t143+2);
+    setVertexEdge(i4, 3*t412);
+    return 3*t042;
+  }
+  /** Flips halfedge h01, part of triangle {i0,i1,i2}, plus twin h10,
+   *  part of triangle {i1,i0,i3} , creating a new halfedge h23 plus twin h32.
+   *  The two triangles are overwritten with {i0,i3,i2} and {i1,i2,i3} .
+   *  @returns h23.
+   *  @see Dcel.HalfEdge#flip()
+   */
+  public int flip(int h01) {
+    int h10 = twin[h01];
+    int i0 = origin[h01];
+    int i1 = origin[h10];
+    int i2 = origin[prev(h01)];
+    int i3 = origin[prev(h10)];
+    int tw12 = twin[next(h01)];
+    int tw20 = twin[prev(h01)];
+    int tw03 = twin[next(h10)];
+    int tw31 = twin[prev(h10)];
+    int t032 = face(h01);
+    int t123 = face(h10);
+    setTriangle(t032, i0, i3, i2);
+    setTriangle(t123, i1, i2, i3);
+    linkTwins(3*t032, tw03);
+    linkTwins(3*t032+2, tw20);
+    linkTwins(3*t123, tw12);
+    linkTwins(3*t123+2, tw31);
+    linkTwins(3*t032+1, 3*t123+1);
+    setVertexEdge(i0, 3*t032);
+    setVertexEdge(i1, 3*t123);
+    setVertexEdge(i2, 3*t032+2);
+    setVertexEdge(i3, 3*t032+1);
+    return 3*t123+1;
+  }
+  /** @see Dcel.HalfEdge#isLegal() */
+  public boolean isLegal(int h) {
+    if(face(h)==0 || face(twin[h])==0) {
+      return true;
+    }
+    return Legality.isLegal(coordinates, iLargest, origin[h], origin[next(h)],
+        origin[prev(h)], origin[prev(twin[h])]);
+  }
+  /** @see Dcel.HalfEdge#swapIsConvex() */
+  public boolean swapIsConvex(int h) {
+    return Legality.swapIsConvex(coordinates, origin[h], origin[next(h)],
+        origin[prev(h)], origin[prev(twin[h])]);
+  }
+  /**
+   * Calls consumer once for each triangle of points, with its point indices
+   * in -z direction; triangles with a special vertex are skipped. Takes time
+   * linear in the number of triangles, and creates no objects.
+   */
+  public void forEachTriangle(IntTriConsumer consumer) {
+    for(int h=0, n=3*numTriangles; h<n; h+=3) {
+      int i0 = origin[h];
+      int i1 = origin[h+1];
+      int i2 = origin[h+2];
+      if(i0>=0 && i1>=0 && i2>=0) {
+        consumer.accept(i0, i1, i2);
+      }
+    }
+  }
+  /**
+   * Calls consumer once for each edge between points, with the smaller point
+   * index first; edges with a special vertex are skipped. Takes time linear
+   * in the number of triangles, and creates no objects.
+   */
+  public void forEachEdge(IntPairConsumer consumer) {
+    for(int h=0, n=3*numTriangles; h<n; ++h) {
+      int i0 = origin[h];
+      int i1 = origin[next(h)];
+      if(i0>=0 && i0<i1) {
+        consumer.accept(i0, i1);
+      }
+    }
+  }
+  /** Calculates and creates triangle t, in canonical form. */
+  public int[] calcTriangle(int t) {
+    return calcTriangle(t, new int[3]);
+  }
+  /** As calcTriangle(int), into tri. */
+  public int[] calcTriangle(int t, int[] tri) {
+    tri[0] = origin[3*t];
+    tri[1] = origin[3*t+1];
+    tri[2] = origin[3*t+2];
+    Triangle.toCanonical(tri);
+    return tri;
+  }
+}
@@ -4,9 +4,6 @@ import gmail.pvbemmelen62.delaunay.*;
 
 public class Circle {
 
-  private static double sqr(double x) {
-    return x*x;
-  }
   /** Returns true iff point p3 lies in circle through points p0, p1, p2,
    * Also tests that p0,p1,p2 is orientation in -z direction.
    * @throws AssertionError if orientation of points is not in -z direction.
@@ -14,19 +11,13 @@ public class Circle {
   public static boolean inCircle(Point p0, Point p1, Point p2, Point p3) {
     // clockwise order:
     Util.myAssert(Triangle.getOrientation(p0, p1, p2) == -1);
-    double[][] matrix = {
-        { p0.x, p0.y, sqr(p0.x)+sqr(p0.y), 1 },
-        { p1.x, p1.y, sqr(p1.x)+sqr(p1.y), 1 },
-        { p2.x, p2.y, sqr(p2.x)+sqr(p2.y), 1 },
-        { p3.x, p3.y, sqr(p3.x)+sqr(p3.y), 1 }
-    };
     // Overmars book, 3rd Ed., page 215:
     // if p0,p1,p2 are in clockwise order, then
     //    det>0 <==> p3 in interior of circle
     // (clockwise =eq= in -z direction)
-    // boolean rv = determinant4x4(matrix) > 0;
-    // Overmars book is wrong:
-    boolean rv = determinant4x4(matrix) < 0;
+    // Overmars book is wrong: it is det<0 , with det the determinant of
+    // rows {x, y, x*x+y*y, 1} , as computed by determinant4x4 .
+    boolean rv = Predicates.incircle(p0, p1, p2, p3) < 0;
     return rv;
   }
   public static double determinant4x4(double m[][]) {
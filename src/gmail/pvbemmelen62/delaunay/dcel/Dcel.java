@@ -5,7 +5,6 @@ import java.text.*;
 import java.util.*;
 
 import gmail.pvbemmelen62.delaunay.*;
-import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
 
 public class Dcel {
   /**
@@ -47,243 +46,20 @@ public class Dcel {
       return rv;
     }
     public boolean isLegal() {
-      // Computational Geometry, Algorithms and Applications, 3rd Ed.
-      // page 201, figure on the right:
-      //   edge to test is pi,pj , with pi,pj,pk being one triangle,
-      //   and pj,pi,pr being the other triangle
-      // Compare:
-      //   pi to v0
-      //   pj to v1
-      //   pk to v2
-      //   pr to v3
-      if(face.data==null || twin.face.data==null) {
+      if(face==outerFace || twin.face==outerFace) {
         return true;
       }
-      Vertex v0 = origin;
-      Vertex v1 = next.origin;
-      Vertex v2 = next.next.origin;
-      Vertex v3 = twin.next.next.origin;
-      // page 204:
-      // Compare:
-      //   pi to v0
-      //   pj to v1
-      //   pk to v2
-      //   pl to v3
-      //
-      if((v0.index<0 || v0.index==iLargest)
-          && (v1.index<0 || v1.index==iLargest)) {
-        throw new IllegalStateException(
-            "test for face.data==null should have handled this.");
-        //return true;
-      }
-      int numNegs = 0;
-      for(Vertex v : new Vertex[] {v0,v1,v2,v3}) {
-        if(v.index<0) {
-          numNegs++;
-        }
-      }
-      if(numNegs==0) {
-        boolean inC = Circle.inCircle(
-            points[v0.index], points[v1.index], points[v2.index], points[v3.index]);
-        return !inC;
-      }
-      else {
-        // p204:
-        //  Let pipj be the edge to be tested, and let pk and pl be the other
-        //  vertices of the triangles incident to pipj (if they exist).
-        //    ....
-        //  pipj is legal if and only if min(k,l) < min(i,j)
-        return Math.min(v2.index,v3.index) < Math.min(v0.index,v1.index);
-      }
+      return Legality.isLegal(coordinates, iLargest, origin.index,
+          next.origin.index, next.next.origin.index,
+          twin.next.next.origin.index);
     }
     /**
      * Checks convexity constraints.
-     * Flipping the common edge of v0,v1,v2 and v1,v0,v3 is only possible
-     * if the polygon v0,v3,v1,v2 is convex, so that the flip affects
-     * no other triangles.
-     * Thus, all angles of v0,v3,v1,v2 must be < 180 degrees .
-     * Angles v1,v2,v0 and v0,v3,v1 are already known to be < 180 degrees.
-     * Angles v2,v0,v3 and v3,v1,v2 still need checking.
+     * @see Legality#swapIsConvex
      */
-    @SuppressWarnings("unused")
     public boolean swapIsConvex() {
-      Vertex v0 = origin;
-      Vertex v1 = next.origin;
-      Vertex v2 = next.next.origin;
-      Vertex v3 = twin.next.next.origin;
-      int numNegs = 0;
-      // There are two special vertices, that can be modelled like this:
-      //   v.index == -2:   x,y = -r*s,ymax+h
-      //   v.index == -1:   x,y = r,ymin-h
-      // with
-      //   limit r->inf
-      //   limit s->inf
-      //   ymax: max y of regular points
-      //   ymin: min y of regular points
-      //   h: ymax-ymin
-      Vertex[] negVs = new Vertex[3];
-      for(Vertex v : new Vertex[] {v0,v1,v2,v3}) {
-        if(v.index<0) {
-          numNegs++;
-          negVs[-v.index] = v; 
-        }
-      }
-      if(numNegs==2) {
-        Util.myAssert(negVs[1]!=null && negVs[2]!=null);
-      }
-      Point p0 = v0.getPoint();
-      Point p1 = v1.getPoint();
-      Point p2 = v2.getPoint();
-      Point p3 = v3.getPoint();
-      Boolean convex = null;
-      // Below, don't think about angles, but think about orientation of
-      // triangles, using the corkscrew rule.
-      // Both p2,p0,p3 and p3,p1,p2 must have orientation in -z direction.
-      if(numNegs==0) {
-        convex =
-            Triangle.getOrientation(p2, p0, p3)==-1
-         && Triangle.getOrientation(p3, p1, p2)==-1 ;
-        // Email from Mark de Berg, dd 170516:
-        //   For the normal points, the convexity test is not necessary: when
-        //   the two triangles do not form a convex quadrilateral, then the
-        //   in-circle test will always fail.
-        // To preserve the semantics of swapIsConvex(), we will still calculate
-        // the convexity.
-      }
-      else if(numNegs==1) {
-        if(v0.index==-2) {
-          convex =
-              p3.compareTo(p2)>0     // triangle p2,p0,p3 == p0,p3,p2
-           && Triangle.getOrientation(p3, p1, p2)==-1;
-        }
-        else if(v0.index==-1) {
-          convex =
-              p2.compareTo(p3)>0     // triangle p2,p0,p3 == p0,p3,p2
-              && Triangle.getOrientation(p3, p1, p2)==-1;
-        }
-        else if(v1.index==-2) {
-          convex =
-              Triangle.getOrientation(p2, p0, p3)==-1
-           && p2.compareTo(p3)>0;    // triangle p3,p1,p2 == p1,p2,p3
-        }
-        else if(v1.index==-1) {
-          convex =
-              Triangle.getOrientation(p2, p0, p3)==-1
-           && p3.compareTo(p2)>0;
-        }
-        else if(v2.index==-2) {
-          convex =
-              p0.compareTo(p3)>0     // triangle p2,p0,p3
-           && p3.compareTo(p1)>0;    // triangle p3,p1,p2 == p2,p3,p1
-        }
-        else if(v2.index==-1) {
-          convex =
-              p3.compareTo(p0)>0     // triangle p2,p0,p3
-           && p1.compareTo(p3)>0;    // triangle p3,p1,p2 == p2,p3,p1
-        }
-        else if(v3.index==-2) {
-          convex =
-              p2.compareTo(p0)>0     // triangle p2,p0,p3 = p3,p2,p0
-           && p1.compareTo(p2)>0;    // triangle p3,p1,p2
-        }
-        else if(v3.index==-1) {
-          convex =
-              p0.compareTo(p2)>0     // triangle p2,p0,p3 = p3,p2,p0
-           && p2.compareTo(p1)>0;    // triangle p3,p1,p2
-        }
-        else {
-          throw new IllegalStateException("no negative index found.");
-        }
-      }
-      else if(numNegs==2) {
-        if(v0.index<0) {
-          if(v1.index<0) {
-            throw new IllegalStateException("illegal edge to flip");
-          }
-          else if(v2.index<0) {
-            if(v0.index==-2) {
-              Util.myAssert(v2.index==-1);
-              convex =
-                  true                   // triangle p2,p0,p3
-               && p1.compareTo(p3)>0;    // triangle p3,p1,p2 = p2,p3,p1
-            }
-            else if(v0.index==-1) {
-              Util.myAssert(v2.index==-2);
-              convex =
-                  false                  // triangle p2,p0,p3
-               && p3.compareTo(p1)>0;    // triangle p3,p1,p2 = p2,p3,p1
-            }
-          }
-          else if(v3.index<0) {
-            if(v3.index==-2) {
-              Util.myAssert(v0.index==-1);
-              convex =
-                  true                   // triangle p2,p0,p3 = p3,p2,p0
-               && p1.compareTo(p2)>0;    // triangle p3,p1,p2
-            }
-            else if(v3.index==-1) {
-              Util.myAssert(v0.index==-2);
-              convex =
-                  false                  // triangle p2,p0,p3 = p3,p2,p0
-               && p2.compareTo(p1)>0;    // triangle p3,p1,p2
-            }
-          }
-        }
-        else if(v1.index<0) {
-          Util.myAssert(v0.index>=0);
-          if(v2.index<0) {
-            if(v2.index==-2) {
-              Util.myAssert(v1.index==-1);
-              convex =
-                  p0.compareTo(p3)>0     // triangle p2,p0,p3
-               && true;                  // triangle p3,p1,p2 = p2,p3,p1
-            }
-            else if(v2.index==-1) {
-              Util.myAssert(v1.index==-2);
-              convex =
-                  p3.compareTo(p0)>0     // triangle p2,p0,p3
-               && false;                 // triangle p3,p1,p2 = p2,p3,p1
-            }
-          }
-          else if(v3.index<0) {
-            if(v3.index==-2) {
-              Util.myAssert(v1.index==-1);
-              convex =
-                  p2.compareTo(p0)>0     // triangle p2,p0,p3 = p3,p2,p0
-               && false;                 // triangle p3,p1,p2
-            }
-            else if(v3.index==-1) {
-              Util.myAssert(v1.index==-2);
-              convex =
-                  p0.compareTo(p2)>0     // triangle p2,p0,p3 = p3,p2,p0
-               && true;                  // triangle p3,p1,p2
-            }
-          }
-        }
-        else if(v2.index<0) {
-          Util.myAssert(v3.index<0);
-          if(v3.index==-2) {
-            Util.myAssert(v2.index==-1);
-            convex =
-                false                  // triangle p2,p0,p3
-             && true;                  // triangle p3,p1,p2
-          }
-          else if(v3.index==-1) {
-            Util.myAssert(v2.index==-2);
-            convex =
-                true                   // triangle p2,p0,p3
-             && false;                 // triangle p3,p1,p2
-          }
-        }
-        else {
-          throw new IllegalStateException("no two negative indexes found.");
-        }
-      }
-      else {
-        throw new IllegalStateException("numNegs: " + numNegs);
-      }
-      Util.myAssert(convex!=null);
-      return convex;
+      return Legality.swapIsConvex(coordinates, origin.index, next.origin.index,
+          next.next.origin.index, twin.next.next.origin.index);
     }
     /** Flips this halfedge h01, part of triangle {i0,i1,i2}, plus twin h10,
      *  part of triangle {i1,i0,i3} , creating a new halfedge h23 plus twin h32.
@@ -304,8 +80,10 @@ public class Dcel {
       Vertex v1 = h10.origin;
       Vertex v2 = h20.origin;
       Vertex v3 = h31.origin;
-      HalfEdge h23 = new HalfEdge();
-      HalfEdge h32 = new HalfEdge();
+      Face f012 = h01.face;
+      Face f103 = h10.face;
+      HalfEdge h23 = newHalfEdge();
+      HalfEdge h32 = newHalfEdge();
       linkTwins(h23,h32);
       linkPrevNextTriangle(h03,h32,h20);
       linkPrevNextTriangle(h12,h23,h31);
@@ -313,12 +91,17 @@ public class Dcel {
       h32.origin = v3;
       v0.repair(h01,h03);
       v1.repair(h10, h12);
-      Face f032 = new Face();
-      Face f123 = new Face();
+      Face f032 = newFace();
+      Face f123 = newFace();
       linkEdgesAndFace(h03,f032);
       linkEdgesAndFace(h12,f123);
-      h01.inUse = false;
-      h10.inUse = false;
+      retire(h01);
+      retire(h10);
+      retire(f012);
+      retire(f103);
+      if(edgeIndex!=null) {
+        addToIndex(h23, h32);
+      }
       return h23;
     }
   }
@@ -375,6 +158,11 @@ public class Dcel {
   public class Vertex {
     Vertex(int index) {
       this.index = index;
+      if(index>=vertices.length) {
+        // point appended to coordinates after creating this Dcel.
+        vertices = Arrays.copyOf(vertices,
+            Math.max(index+1, 2*vertices.length));
+      }
       if(index>=0) {
         vertices[index] = this;
       }
@@ -386,15 +174,15 @@ public class Dcel {
       String rv = "{"
           + "index:" + index
           + ", edge:" + (edge==null ? null : edge.toStringShort())
-          + ", point:" + (index>=0 ? points[index] : "?")
+          + ", point:" + (index>=0 ? coordinates.getPoint(index) : "?")
           + "}"
           ;
       return rv;
     }
-    /** points[vertex.index], or null if vertex.index<0 */
+    /** Point of vertex.index, or null if vertex.index<0 */
     public Point getPoint() {
       if(index>=0) {
-        return points[index];
+        return coordinates.getPoint(index);
       }
       else {
         return null;
@@ -438,13 +226,18 @@ public class Dcel {
   }
   public class Face implements Comparable<Face> {
     public HalfEdge edge;
-    /** The corresponding node in PointLocationStructure, or null if the face
-     * is the outer face.
+    /** Index among the faces after compact(), -1 before. */
+    public int index = -1;
+    /** The corresponding node in PointLocationStructure, or -1 if the face
+     * is the outer face or if no PointLocationStructure is used.
      */
-    public Node data;
+    public int node = -1;
     /** Calculates and creates triangle from info on half edges.*/ 
     public int[] calcTriangle() {
-      int[] tri = new int[3];
+      return calcTriangle(new int[3]);
+    }
+    /** As calcTriangle(), into tri. */
+    public int[] calcTriangle(int[] tri) {
       HalfEdge h = edge;
       for(int i=0; i<3; ++i) {
         tri[i] = h.origin.index;
@@ -474,36 +267,49 @@ public class Dcel {
     public String toString() {
       String rv = "{"
           + "edge: " + (edge==null ? null : edge.toStringShort())
-          + "data: " + dumbString(data)
+          + "node: " + node
           + "}";
       return rv;
     }
   }
   
-  protected Point[] points;
+  protected Coordinates coordinates;
   protected int iLargest;
   protected Vertex[] vertices;
-  protected ArrayList<HalfEdge> edges; // : for debugging only.
+  /** All halfedges: in use, or retired and in freeHalfEdges. */
+  protected ArrayList<HalfEdge> edges;
+  /** Retired halfedges, reused by newHalfEdge() . */
+  protected ArrayList<HalfEdge> freeHalfEdges = new ArrayList<>();
+  /** Retired faces, reused by newFace() . */
+  protected ArrayList<Face> freeFaces = new ArrayList<>();
+  /** Index of the halfedges in use, or null if getHalfEdge searches around
+   *  the vertex. */
+  protected EdgeIndex edgeIndex;
   /** Vertex -2 . */
   protected Vertex v_2;
   /** Vertex -1 . */
   protected Vertex v_1;
+  /** Face {-2,-1,iLargest}, outside of the top triangle {-2,iLargest,-1} .*/
+  protected Face outerFace;
 
   public Dcel(Point[] points, int iLargest) {
-    this.points = points;
+    this(Coordinates.of(points), iLargest);
+  }
+  public Dcel(Coordinates coordinates, int iLargest) {
+    this.coordinates = coordinates;
     this.iLargest = iLargest;
-    vertices = new Vertex[points.length];
+    vertices = new Vertex[coordinates.size()];
     edges = new ArrayList<>();
     // create top triangle {-2,0,-1}
     v_2 = new Vertex(-2);
     v_1 = new Vertex(-1);
     Vertex vL = new Vertex(iLargest);
-    HalfEdge h_2L = new HalfEdge();
-    HalfEdge hL_2 = new HalfEdge();
-    HalfEdge hL_1 = new HalfEdge();
-    HalfEdge h_1L = new HalfEdge();
-    HalfEdge h_1_2 = new HalfEdge();
-    HalfEdge h_2_1 = new HalfEdge();
+    HalfEdge h_2L = newHalfEdge();
+    HalfEdge hL_2 = newHalfEdge();
+    HalfEdge hL_1 = newHalfEdge();
+    HalfEdge h_1L = newHalfEdge();
+    HalfEdge h_1_2 = newHalfEdge();
+    HalfEdge h_2_1 = newHalfEdge();
     linkTwins(h_2L, hL_2);
     linkTwins(hL_1, h_1L);
     linkTwins(h_1_2, h_2_1);
@@ -512,10 +318,102 @@ public class Dcel {
     v_2.edge = h_2L;   h_2L.origin = v_2;   hL_2.origin = vL;
     vL.edge  = hL_1;   hL_1.origin = vL;    h_1L.origin = v_1;
     v_1.edge = h_1_2;  h_1_2.origin = v_1;  h_2_1.origin = v_2;
-    Face f_2_1L = new Face();
-    Face f_2L_1 = new Face();
+    Face f_2_1L = newFace();
+    Face f_2L_1 = newFace();
     linkEdgesAndFace(h_2_1, f_2_1L);
     linkEdgesAndFace(h_2L, f_2L_1);
+    outerFace = f_2_1L;
+  }
+  /**
+   * Creates the Dcel of a triangulation calculated by another algorithm, and
+   * adds the special vertices -1 and -2 with their triangles, as
+   * DelaunayTriangulation would have done.
+   * @param triangles triangle t is {triangles[3*t], triangles[3*t+1],
+   *   triangles[3*t+2]}, in -z direction.
+   * @param hull the convex hull in +z direction: the halfedges from hull[k]
+   *   to hull[(k+1)%hullSize] are not part of any of the triangles. If all
+   *   points are collinear, the hull goes back and forth along them.
+   */
+  public Dcel(Coordinates coordinates, int iLargest, int[] triangles,
+      int numTriangles, int[] hull, int hullSize) {
+    this.coordinates = coordinates;
+    this.iLargest = iLargest;
+    vertices = new Vertex[coordinates.size()];
+    edges = new ArrayList<>();
+    v_2 = new Vertex(-2);
+    v_1 = new Vertex(-1);
+    // halfedges for which the twin has not been created yet.
+    EdgeIndex open = new EdgeIndex(hullSize + 16);
+    for(int t=0; t<numTriangles; ++t) {
+      addTriangle(triangles[3*t], triangles[3*t+1], triangles[3*t+2], open);
+    }
+    int iLowest = hull[0];
+    for(int k=1; k<hullSize; ++k) {
+      if(coordinates.compareYThenX(hull[k], iLowest) < 0) {
+        iLowest = hull[k];
+      }
+    }
+    // triangle {-2,a,b} is in -z direction iff b<a , {-1,a,b} iff b>a .
+    for(int k=0; k<hullSize && hullSize>1; ++k) {
+      int a = hull[k];
+      int b = hull[(k+1)%hullSize];
+      int special = coordinates.compareYThenX(b, a) < 0 ? -2 : -1;
+      addTriangle(special, a, b, open);
+    }
+    addTriangle(-2, iLowest, -1, open);
+    outerFace = addTriangle(-2, -1, iLargest, open);
+    Util.myAssert(open.size()==0, "triangles and hull do not match");
+  }
+  private Face addTriangle(int i0, int i1, int i2, EdgeIndex open) {
+    int[] tri = { i0, i1, i2 };
+    HalfEdge[] hs = new HalfEdge[3];
+    for(int j=0; j<3; ++j) {
+      Vertex v = getVertex(tri[j]);
+      if(v==null) {
+        v = new Vertex(tri[j]);
+      }
+      hs[j] = newHalfEdge();
+      hs[j].origin = v;
+      if(v.edge==null) {
+        v.edge = hs[j];
+      }
+    }
+    linkPrevNextTriangle(hs[0], hs[1], hs[2]);
+    Face f = newFace();
+    linkEdgesAndFace(hs[0], f);
+    for(int j=0; j<3; ++j) {
+      int i = tri[j];
+      int k = tri[(j+1)%3];
+      HalfEdge twin = open.remove(k, i);
+      if(twin!=null) {
+        linkTwins(hs[j], twin);
+      }
+      else {
+        open.put(i, k, hs[j]);
+      }
+    }
+    return f;
+  }
+  public Face getOuterFace() {
+    return outerFace;
+  }
+  public int getLargest() {
+    return iLargest;
+  }
+  /**
+   * Splits the outer face {-2,-1,iLargest} by point pointIndex, which is
+   * larger than iLargest in yThenX order, so that it lies outside the top
+   * triangle. Point pointIndex becomes iLargest, and {-2,-1,pointIndex} the
+   * outer face; edges {-1,iLargest} and {iLargest,-2} of the old top point
+   * still need legalizing.
+   * @return h30 as splitTriangle(HalfEdge, int) , with i0 -2 and i1 -1 .
+   */
+  public HalfEdge splitOuterFace(int pointIndex) {
+    Util.myAssert(coordinates.compareYThenX(pointIndex, iLargest) > 0);
+    HalfEdge h30 = splitTriangle(getHalfEdge(-2, -1), pointIndex);
+    outerFace = h30.face;
+    iLargest = pointIndex;
+    return h30;
   }
   /**
    * Split triangle tri in three triangles by adding a point.
@@ -524,19 +422,29 @@ public class Dcel {
    * @return h30 halfedge from v3 to v0, part of triangle {i3,i0,i1}.
    */
   public HalfEdge splitTriangle(int[] tri, int pointIndex) {
-    HalfEdge h01 = getHalfEdge(tri[0],tri[1]);
+    return splitTriangle(getHalfEdge(tri[0],tri[1]), pointIndex);
+  }
+  /**
+   * Split the triangle of h01 in three triangles by adding a point.
+   * @param h01 halfedge of the triangle to be split; defines i0,i1 to be its
+   *   origin and destination, and i2 the third point of the triangle.
+   * @param pointIndex; i3 is defined equal to pointIndex.
+   * @return h30 halfedge from v3 to v0, part of triangle {i3,i0,i1}.
+   */
+  public HalfEdge splitTriangle(HalfEdge h01, int pointIndex) {
     HalfEdge h12 = h01.next;
     HalfEdge h20 = h12.next;
     Vertex v0 = h01.origin;
     Vertex v1 = h12.origin;
     Vertex v2 = h20.origin;
     Vertex v3 = new Vertex(pointIndex);
-    HalfEdge h03 = new HalfEdge();
-    HalfEdge h30 = new HalfEdge();
-    HalfEdge h13 = new HalfEdge();
-    HalfEdge h31 = new HalfEdge();
-    HalfEdge h23 = new HalfEdge();
-    HalfEdge h32 = new HalfEdge();
+    Face f012 = h01.face;
+    HalfEdge h03 = newHalfEdge();
+    HalfEdge h30 = newHalfEdge();
+    HalfEdge h13 = newHalfEdge();
+    HalfEdge h31 = newHalfEdge();
+    HalfEdge h23 = newHalfEdge();
+    HalfEdge h32 = newHalfEdge();
     linkTwins(h03,h30);
     linkTwins(h13,h31);
     linkTwins(h23,h32);
@@ -550,13 +458,73 @@ public class Dcel {
     h23.origin = v2;
     h32.origin = v3;
     v3.edge = h30;
-    Face f013 = new Face();  linkEdgesAndFace(h01,f013);
-    Face f123 = new Face();  linkEdgesAndFace(h12,f123);
-    Face f203 = new Face();  linkEdgesAndFace(h20,f203);
+    Face f013 = newFace();  linkEdgesAndFace(h01,f013);
+    Face f123 = newFace();  linkEdgesAndFace(h12,f123);
+    Face f203 = newFace();  linkEdgesAndFace(h20,f203);
+    retire(f012);
+    if(edgeIndex!=null) {
+      addToIndex(h03, h30);
+      addToIndex(h13, h31);
+      addToIndex(h23, h32);
+    }
     return h30;
   }
+  /**
+   * Removes vertex i, which must have degree 3, merging its three faces into
+   * one. If one of them is the outer face, i is iLargest, and the merged face
+   * becomes the outer face, with its point other than -1 and -2 as
+   * iLargest.
+   * @return a halfedge of the merged face.
+   */
+  public HalfEdge removeDegree3Vertex(int i) {
+    Vertex v = getVertex(i);
+    HalfEdge[] hs = new HalfEdge[3];
+    hs[0] = v.edge;
+    hs[1] = hs[0].prev.twin;
+    hs[2] = hs[1].prev.twin;
+    Util.myAssert(hs[2].prev.twin==hs[0], "vertex of degree > 3");
+    Face f = hs[0].face;
+    for(HalfEdge h : hs) {
+      if(h.face==outerFace) {
+        f = outerFace;
+      }
+    }
+    HalfEdge e0 = hs[0].next;
+    HalfEdge e1 = hs[1].next;
+    HalfEdge e2 = hs[2].next;
+    for(HalfEdge h : hs) {
+      // h from v to a ; h.next from a to the next neighbour.
+      h.twin.origin.repair(h.twin, h.next);
+      if(h.face!=f) {
+        retire(h.face);
+      }
+      retire(h);
+      retire(h.twin);
+    }
+    linkPrevNextTriangle(e0, e1, e2);
+    linkEdgesAndFace(e0, f);
+    vertices[i] = null;
+    v.edge = null;
+    if(f==outerFace) {
+      HalfEdge e = e0;
+      while(e.origin.index<0) {
+        e = e.next;
+      }
+      iLargest = e.origin.index;
+    }
+    return e0;
+  }
   /** Returns the halfedge {i0, i1}, or null if it doesn't exist. */
   public HalfEdge getHalfEdge(int i0, int i1) {
+    if(edgeIndex!=null) {
+      return edgeIndex.get(i0, i1);
+    }
+    if(i0<0 && i1>=0) {
+      // The special vertices are adjacent to all points of the hull, so
+      // search around i1 instead.
+      HalfEdge h = getHalfEdge(i1, i0);
+      return h==null ? null : h.twin;
+    }
     Vertex v0 = getVertex(i0);
     HalfEdge h0 = v0.edge;
     HalfEdge h = h0;
@@ -583,6 +551,89 @@ public class Dcel {
     }
     return v;
   }
+  /**
+   * Visibility walk from the face of <code>start</code> to the face that
+   * contains point (x,y).
+   * The order in which the two remaining edges of a face are tested is
+   * pseudo-random, which guarantees termination.
+   * @return halfedge h with (x,y) in h.face; if (x,y) lies on an edge of that
+   *   face, h is that edge; if (x,y) coincides with a vertex, h.origin is that
+   *   vertex.
+   */
+  public HalfEdge walk(HalfEdge start, double x, double y) {
+    return walk(start, x, y, false);
+  }
+  /**
+   * As walk(HalfEdge, double, double) , but if toOuterFace, a point outside
+   * the top triangle gives the halfedge of the outer face that the walk
+   * crossed into it, instead of an exception.
+   */
+  protected HalfEdge walk(HalfEdge start, double x, double y,
+      boolean toOuterFace) {
+    HalfEdge h = start;
+    HalfEdge crossed = null;
+    for(int i=0; i<3 && crossed==null; ++i) {
+      if(orientation(h, x, y) > 0) {
+        crossed = h;
+      }
+      h = h.next;
+    }
+    if(crossed==null) {
+      return classify(start, x, y);
+    }
+    h = crossed.twin;
+    int bits = 0x9e3779b9;
+    while(true) {
+      if(h.face==outerFace) {
+        if(toOuterFace) {
+          return h;
+        }
+        throw new IllegalStateException("Point lies outside top triangle: "
+            + x + "," + y);
+      }
+      bits ^= bits << 13;
+      bits ^= bits >>> 17;
+      bits ^= bits << 5;
+      // h has been crossed; test the other two edges, in random order.
+      HalfEdge e0 = (bits & 1)==0 ? h.next : h.prev;
+      HalfEdge e1 = (bits & 1)==0 ? h.prev : h.next;
+      if(orientation(e0, x, y) > 0) {
+        h = e0.twin;
+      }
+      else if(orientation(e1, x, y) > 0) {
+        h = e1.twin;
+      }
+      else {
+        return classify(h, x, y);
+      }
+    }
+  }
+  /** Orientation of h.origin, h.twin.origin, (x,y) .
+   *  @see Triangle#getOrientation(Coordinates, int, int, double, double)
+   */
+  public int orientation(HalfEdge h, double x, double y) {
+    return Triangle.getOrientation(coordinates, h.origin.index,
+        h.twin.origin.index, x, y);
+  }
+  /** Returns edge of the face of h on which (x,y) lies, or the edge starting
+   *  at the vertex that (x,y) coincides with, or h if (x,y) lies inside.
+   */
+  protected HalfEdge classify(HalfEdge h, double x, double y) {
+    HalfEdge onEdge = null;
+    for(int i=0; i<3; ++i) {
+      if(orientation(h, x, y)==0) {
+        if(onEdge==null) {
+          onEdge = h;
+        }
+        else {
+          // on two edges: (x,y) is their common vertex.
+          return onEdge.next==h ? h : onEdge;
+        }
+      }
+      h = h.next;
+    }
+    return onEdge==null ? h : onEdge;
+  }
   /**
    * Splits triangles tri0, being {i0,i1,i2} or a rotation of this, and tri1,
    * being {i1,i0,i3} or a rotation of this, because edges {i0,i1} and {i1,i0}
@@ -602,32 +653,44 @@ public class Dcel {
     int[] commons = Triangle.findCommonPoints(tri0, tri1);
     int i0 = tri0[commons[0]];
     int i1 = tri0[commons[1]];
-    int i2 = tri0[Triangle.nonCommon(commons)];
-    int i3 = tri1[Triangle.theOtherPoint(tri1, new int[] {i0,i1})];
-
-    Vertex v0 = vertices[i0];
-    Vertex v1 = vertices[i1];
-    Vertex v2 = vertices[i2];
-    Vertex v3 = vertices[i3];
-    Vertex v4 = new Vertex(i4);
-    HalfEdge h01 = getHalfEdge(i0,i1);
-//  HalfEdge h12 = h01.next;
-//  HalfEdge h20 = h12.next;
+    return splitTriangles(getHalfEdge(i0,i1), i4);
+  }
+  /**
+   * Splits the triangles of h01, being {i0,i1,i2}, and of its twin, being
+   * {i1,i0,i3}, because edges {i0,i1} and {i1,i0} are split by the new
+   * point i4.
+   * @see #splitTriangles(int[], int[], int)
+   * @return h04
+   */
+  public HalfEdge splitTriangles(HalfEdge h01, int i4) {
+    HalfEdge h12 = h01.next;
+    HalfEdge h20 = h12.next;
     HalfEdge h10 = h01.twin;
-//  HalfEdge h03 = h10.next;
-//  HalfEdge h31 = h03.next;
-    HalfEdge h04 = new HalfEdge();
-    HalfEdge h40 = new HalfEdge();
-    HalfEdge h14 = new HalfEdge();
-    HalfEdge h41 = new HalfEdge();
-    HalfEdge h24 = new HalfEdge();
-    HalfEdge h42 = new HalfEdge();
-    HalfEdge h34 = new HalfEdge();
-    HalfEdge h43 = new HalfEdge();
+    HalfEdge h03 = h10.next;
+    HalfEdge h31 = h03.next;
+    Vertex v0 = h01.origin;
+    Vertex v1 = h10.origin;
+    Vertex v2 = h20.origin;
+    Vertex v3 = h31.origin;
+    Vertex v4 = new Vertex(i4);
+    Face f012 = h01.face;
+    Face f103 = h10.face;
+    HalfEdge h04 = newHalfEdge();
+    HalfEdge h40 = newHalfEdge();
+    HalfEdge h14 = newHalfEdge();
+    HalfEdge h41 = newHalfEdge();
+    HalfEdge h24 = newHalfEdge();
+    HalfEdge h42 = newHalfEdge();
+    HalfEdge h34 = newHalfEdge();
+    HalfEdge h43 = newHalfEdge();
     linkTwins(h04,h40);
     linkTwins(h14,h41);
     linkTwins(h24,h42);
     linkTwins(h34,h43);
+    linkPrevNextTriangle(h04,h42,h20);
+    linkPrevNextTriangle(h41,h12,h24);
+    linkPrevNextTriangle(h14,h43,h31);
+    linkPrevNextTriangle(h40,h03,h34);
     h04.origin = v0;
     h40.origin = v4;
     h14.origin = v1;
@@ -639,18 +702,120 @@ public class Dcel {
     v0.repair(h01,h04);
     v1.repair(h10,h14);
     v4.edge = h40;
-    Face f042 = new Face();
-    Face f412 = new Face();
-    Face f143 = new Face();
-    Face f403 = new Face();
+    Face f042 = newFace();
+    Face f412 = newFace();
+    Face f143 = newFace();
+    Face f403 = newFace();
     linkEdgesAndFace(h04, f042);
     linkEdgesAndFace(h41, f412);
     linkEdgesAndFace(h14, f143);
     linkEdgesAndFace(h40, f403);
-    h01.inUse = false;
-    h10.inUse = false;
+    retire(h01);
+    retire(h10);
+    retire(f012);
+    retire(f103);
+    if(edgeIndex!=null) {
+      addToIndex(h04, h40);
+      addToIndex(h14, h41);
+      addToIndex(h24, h42);
+      addToIndex(h34, h43);
+    }
     return h04;
   }
+  /** Returns a retired halfedge if there is one, or else a new one. */
+  protected HalfEdge newHalfEdge() {
+    int size = freeHalfEdges.size();
+    if(size==0) {
+      return new HalfEdge();
+    }
+    HalfEdge h = freeHalfEdges.remove(size-1);
+    h.twin = h.next = h.prev = null;
+    h.origin = null;
+    h.face = null;
+    h.inUse = true;
+    return h;
+  }
+  /** Returns a retired face if there is one, or else a new one. */
+  protected Face newFace() {
+    int size = freeFaces.size();
+    if(size==0) {
+      return new Face();
+    }
+    return freeFaces.remove(size-1);
+  }
+  /** Marks h as no longer used, for reuse by newHalfEdge() . */
+  protected void retire(HalfEdge h) {
+    if(edgeIndex!=null && edgeIndex.get(h.origin.index,
+        h.twin.origin.index)==h) {
+      edgeIndex.remove(h.origin.index, h.twin.origin.index);
+    }
+    h.inUse = false;
+    freeHalfEdges.add(h);
+  }
+  /** Marks f as no longer used, for reuse by newFace() . */
+  protected void retire(Face f) {
+    f.edge = null;
+    f.node = -1;
+    freeFaces.add(f);
+  }
+  /**
+   * Drops the retired halfedges and faces, and renumbers the halfedges and
+   * faces in use densely: the halfedges of face f get indices 3*f.index ..
+   * 3*f.index+2, starting at f.edge.
+   * @return the number of faces, including the outer face.
+   */
+  public int compact() {
+    ArrayList<HalfEdge> used = new ArrayList<>(edges.size()
+        - freeHalfEdges.size());
+    int numFaces = 0;
+    for(HalfEdge h : edges) {
+      if(!h.inUse || h.face.edge!=h) {
+        continue;
+      }
+      h.face.index = numFaces++;
+      HalfEdge e = h;
+      do {
+        e.index = used.size();
+        used.add(e);
+        e = e.next;
+      }
+      while(e!=h);
+    }
+    edges = used;
+    freeHalfEdges = new ArrayList<>();
+    freeFaces = new ArrayList<>();
+    return numFaces;
+  }
+  /**
+   * Makes getHalfEdge(int, int) take constant time, instead of time linear in
+   * the degree of the vertex, by keeping an EdgeIndex of the halfedges in
+   * use up to date from now on.
+   */
+  public void enableEdgeIndex() {
+    edgeIndex = new EdgeIndex(edges.size() - freeHalfEdges.size());
+    for(HalfEdge h : edges) {
+      if(h.inUse) {
+        edgeIndex.put(h.origin.index, h.twin.origin.index, h);
+      }
+    }
+  }
+  /** Adds new halfedge h and its twin to edgeIndex . */
+  private void addToIndex(HalfEdge h, HalfEdge twin) {
+    edgeIndex.put(h.origin.index, twin.origin.index, h);
+    edgeIndex.put(twin.origin.index, h.origin.index, twin);
+  }
+  /** Unlinks all faces from their nodes in PointLocationStructure . */
+  public void clearFaceNodes() {
+    for(HalfEdge h : edges) {
+      if(h.inUse) {
+        h.face.node = -1;
+      }
+    }
+  }
+  /** Returns the number of halfedges, in use or retired. */
+  public int getNumHalfEdges() {
+    return edges.size();
+  }
   /** For debugging: check that edges for which inUse==false, are no longer
    *  referenced by the other edges.*/ 
   public void checkEdges() {
@@ -660,6 +825,67 @@ public class Dcel {
       }
     }
   }
+  /**
+   * Checks, in time linear in the number of halfedges, that the halfedges in
+   * use form a Delaunay triangulation: twin, next, prev, origin and face are
+   * consistent, every face is a triangle, all but the outer face in -z
+   * direction, the numbers of vertices and halfedges satisfy Euler's formula,
+   * and every edge is legal or cannot be flipped, which implies that all
+   * circumcircles are empty.
+   * @throws AssertionError if a check fails.
+   */
+  public void validate() {
+    int numHalfEdges = 0;
+    for(HalfEdge h : edges) {
+      if(!h.inUse) {
+        continue;
+      }
+      ++numHalfEdges;
+      check(h.twin.inUse && h.next.inUse && h.prev.inUse, h, "unused link");
+      check(h.twin!=h && h.twin.twin==h, h, "twin");
+      check(h.next.prev==h && h.prev.next==h, h, "next or prev");
+      check(h.next.next.next==h, h, "not a triangle");
+      check(h.next.face==h.face && h.face.edge.face==h.face, h, "face");
+      check(h.twin.next.origin==h.origin, h, "origin");
+      check(h.origin.edge.inUse && h.origin.edge.origin==h.origin, h,
+          "edge of origin");
+      if(h.face==outerFace) {
+        continue;
+      }
+      if(h==h.face.edge) {
+        check(orientation(h.face)<0, h, "face not in -z direction");
+      }
+      // As in legalizeEdge: an illegal edge between points always has a
+      // convex quadrilateral, one with a special vertex need not.
+      if(h.origin.index < h.twin.origin.index) {
+        check(h.isLegal() || !h.swapIsConvex(), h, "illegal edge");
+      }
+    }
+    int numVertices = 2;
+    for(Vertex v : vertices) {
+      if(v!=null) {
+        ++numVertices;
+      }
+    }
+    // V - E + F == 2 , with 3F == 2E , gives E == 3V - 6 .
+    check(numHalfEdges==6*numVertices-12, null, "Euler's formula");
+  }
+  private static void check(boolean b, HalfEdge h, String msg) {
+    if(!b) {
+      throw new AssertionError(msg + ": " + h);
+    }
+  }
+  /** Returns the orientation of the triangle of f, as
+   *  Triangle.getOrientation(Point, Point, Point) does. */
+  public int orientation(Face f) {
+    HalfEdge h = f.edge;
+    // At most two vertices are special; make the third one a point.
+    while(h.prev.origin.index<0) {
+      h = h.next;
+    }
+    int i = h.prev.origin.index;
+    return orientation(h, coordinates.x(i), coordinates.y(i));
+  }
   public void writeToFile() {
     Date now = new Date();
     String s = new SimpleDateFormat("yyyyMMdd-HHmmss").format(now);
@@ -680,10 +906,10 @@ public class Dcel {
     }
   }
   public void writePointsAndLines(BufferedWriter writer) throws IOException {
-    writer.write(""+points.length);
+    writer.write(""+coordinates.size());
     writer.newLine();
-    for(Point p : points) {
-      writer.write(""+p.x+" "+p.y);
+    for(int i=0; i<coordinates.size(); ++i) {
+      writer.write(""+coordinates.x(i)+" "+coordinates.y(i));
       writer.newLine();
     }
     int numHalfEdges = 0;
@@ -707,10 +933,10 @@ public class Dcel {
   }
   
   public void writePointsAndTriangles(BufferedWriter writer) throws IOException {
-    writer.write(""+points.length);
+    writer.write(""+coordinates.size());
     writer.newLine();
-    for(Point p : points) {
-      writer.write(""+p.x+" "+p.y);
+    for(int i=0; i<coordinates.size(); ++i) {
+      writer.write(""+coordinates.x(i)+" "+coordinates.y(i));
       writer.newLine();
     }
     //
@@ -723,6 +949,44 @@ public class Dcel {
       writer.newLine();
     }
   }
+  /**
+   * Calls consumer once for each triangle of points, with its point indices
+   * in -z direction, starting at the origin of the edge of the face; faces
+   * with a special vertex are skipped. Takes time linear in the number of
+   * halfedges, and creates no objects.
+   */
+  public void forEachTriangle(IntTriConsumer consumer) {
+    for(int k=0, n=edges.size(); k<n; ++k) {
+      HalfEdge h = edges.get(k);
+      if(!h.inUse || h.face.edge!=h) {
+        continue;
+      }
+      int i0 = h.origin.index;
+      int i1 = h.next.origin.index;
+      int i2 = h.prev.origin.index;
+      if(i0>=0 && i1>=0 && i2>=0) {
+        consumer.accept(i0, i1, i2);
+      }
+    }
+  }
+  /**
+   * Calls consumer once for each edge between points, with the smaller point
+   * index first; edges with a special vertex are skipped. Takes time linear
+   * in the number of halfedges, and creates no objects.
+   */
+  public void forEachEdge(IntPairConsumer consumer) {
+    for(int k=0, n=edges.size(); k<n; ++k) {
+      HalfEdge h = edges.get(k);
+      if(!h.inUse) {
+        continue;
+      }
+      int i0 = h.origin.index;
+      int i1 = h.twin.origin.index;
+      if(i0>=0 && i0<i1) {
+        consumer.accept(i0, i1);
+      }
+    }
+  }
   public TreeSet<Face> getFaces() {
     TreeSet<Face> faces = new TreeSet<>();
     for(Vertex v : vertices) {
@@ -0,0 +1,126 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Map from halfedge {i0,i1} to HalfEdge, with i0 and i1 packed in a long key:
+ * open addressing with linear probing, so without boxing or entry objects.
+ * Removal shifts later entries of the probe sequence back, so there are no
+ * tombstones.
+ */
+public class EdgeIndex {
+
+  /** Key of no halfedge, since vertex indices are at least -2 . */
+  private static final long EMPTY = Long.MIN_VALUE;
+
+  private long[] keys;
+  private HalfEdge[] values;
+  private int mask;
+  private int size;
+
+  public EdgeIndex(int expectedSize) {
+    int capacity = 16;
+    while(capacity < 2*expectedSize) {
+      capacity *= 2;
+    }
+    allocate(capacity);
+  }
+  /** Key of halfedge {i0,i1}, unique also for the special vertices. */
+  public static long key(int i0, int i1) {
+    return ((long)i0 << 32) | (i1 & 0xffffffffL);
+  }
+  public int size() {
+    return size;
+  }
+  /** Returns halfedge {i0,i1}, or null if it isn't in this index. */
+  public HalfEdge get(int i0, int i1) {
+    long key = key(i0, i1);
+    for(int slot=slot(key); ; slot=(slot+1)&mask) {
+      long k = keys[slot];
+      if(k==key) {
+        return values[slot];
+      }
+      if(k==EMPTY) {
+        return null;
+      }
+    }
+  }
+  /** Sets halfedge {i0,i1} to h, replacing any earlier one. */
+  public void put(int i0, int i1, HalfEdge h) {
+    long key = key(i0, i1);
+    int slot = slot(key);
+    while(keys[slot]!=EMPTY) {
+      if(keys[slot]==key) {
+        values[slot] = h;
+        return;
+      }
+      slot = (slot+1)&mask;
+    }
+    keys[slot] = key;
+    values[slot] = h;
+    if(++size > (mask+1)/2) {
+      rehash(2*(mask+1));
+    }
+  }
+  /** Removes halfedge {i0,i1}, returning it, or null if it wasn't there. */
+  public HalfEdge remove(int i0, int i1) {
+    long key = key(i0, i1);
+    int slot = slot(key);
+    while(keys[slot]!=key) {
+      if(keys[slot]==EMPTY) {
+        return null;
+      }
+      slot = (slot+1)&mask;
+    }
+    HalfEdge h = values[slot];
+    --size;
+    // Move back the entries that can no longer be reached past the hole.
+    int hole = slot;
+    for(int j=(hole+1)&mask; keys[j]!=EMPTY; j=(j+1)&mask) {
+      int home = slot(keys[j]);
+      // Entry j may move to hole iff home is not in (hole, j] , cyclically.
+      boolean stays = hole<=j ? (hole<home && home<=j)
+          : (hole<home || home<=j);
+      if(!stays) {
+        keys[hole] = keys[j];
+        values[hole] = values[j];
+        hole = j;
+      }
+    }
+    keys[hole] = EMPTY;
+    values[hole] = null;
+    return h;
+  }
+  private int slot(long key) {
+    // Finalizer of MurmurHash3, so that nearby indices spread out.
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int)key & mask;
+  }
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    Arrays.fill(keys, EMPTY);
+    values = new HalfEdge[capacity];
+    mask = capacity-1;
+  }
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    HalfEdge[] oldValues = values;
+    allocate(capacity);
+    for(int i=0; i<oldKeys.length; ++i) {
+      if(oldKeys[i]!=EMPTY) {
+        int slot = slot(oldKeys[i]);
+        while(keys[slot]!=EMPTY) {
+          slot = (slot+1)&mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
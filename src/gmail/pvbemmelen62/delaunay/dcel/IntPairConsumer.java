@@ -0,0 +1,11 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+/**
+ * Receives the two point indices of an edge, the smaller one first, from
+ * Dcel.forEachEdge and ArrayDcel.forEachEdge .
+ */
+@FunctionalInterface
+public interface IntPairConsumer {
+
+  public void accept(int i0, int i1);
+}
@@ -0,0 +1,11 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+/**
+ * Receives the three point indices of a triangle, in -z direction, from
+ * Dcel.forEachTriangle and ArrayDcel.forEachTriangle .
+ */
+@FunctionalInterface
+public interface IntTriConsumer {
+
+  public void accept(int i0, int i1, int i2);
+}
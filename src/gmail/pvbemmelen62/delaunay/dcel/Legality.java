@@ -0,0 +1,237 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+import gmail.pvbemmelen62.delaunay.*;
+
+/**
+ * Legality and flip tests on the vertex indices of two adjacent triangles
+ * {i0,i1,i2} and {i1,i0,i3}, sharing edge {i0,i1} .
+ * Shared by Dcel and ArrayDcel, so that both take the same decisions,
+ * including those for the special vertices -1 and -2 .
+ */
+public class Legality {
+
+  /** Returns how many of i0, i1, i2, i3 are special vertices. */
+  private static int numNegatives(int i0, int i1, int i2, int i3) {
+    return (i0<0 ? 1 : 0) + (i1<0 ? 1 : 0) + (i2<0 ? 1 : 0) + (i3<0 ? 1 : 0);
+  }
+  /**
+   * Returns true iff edge {i0,i1} is legal; edges of the outer face must be
+   * handled by the caller.
+   */
+  public static boolean isLegal(Coordinates coords, int iLargest,
+      int i0, int i1, int i2, int i3) {
+    // Computational Geometry, Algorithms and Applications, 3rd Ed.
+    // page 201, figure on the right:
+    //   edge to test is pi,pj , with pi,pj,pk being one triangle,
+    //   and pj,pi,pr being the other triangle
+    // Compare:
+    //   pi to i0
+    //   pj to i1
+    //   pk to i2
+    //   pr to i3
+    // page 204:
+    // Compare:
+    //   pi to i0
+    //   pj to i1
+    //   pk to i2
+    //   pl to i3
+    //
+    if((i0<0 || i0==iLargest)
+        && (i1<0 || i1==iLargest)) {
+      throw new IllegalStateException(
+          "caller should have handled edges of the outer face.");
+      //return true;
+    }
+    int numNegs = numNegatives(i0, i1, i2, i3);
+    if(numNegs==0) {
+      // Triangle i0,i1,i2 is clockwise, so i3 lies inside its circle iff
+      // incircle is negative.
+      return coords.incircle(i0, i1, i2, i3) >= 0;
+    }
+    else {
+      // p204:
+      //  Let pipj be the edge to be tested, and let pk and pl be the other
+      //  vertices of the triangles incident to pipj (if they exist).
+      //    ....
+      //  pipj is legal if and only if min(k,l) < min(i,j)
+      return Math.min(i2,i3) < Math.min(i0,i1);
+    }
+  }
+  /**
+   * Checks convexity constraints.
+   * Flipping the common edge of i0,i1,i2 and i1,i0,i3 is only possible
+   * if the polygon i0,i3,i1,i2 is convex, so that the flip affects
+   * no other triangles.
+   * Thus, all angles of i0,i3,i1,i2 must be < 180 degrees .
+   * Angles i1,i2,i0 and i0,i3,i1 are already known to be < 180 degrees.
+   * Angles i2,i0,i3 and i3,i1,i2 still need checking.
+   */
+  @SuppressWarnings("unused")
+  public static boolean swapIsConvex(Coordinates coords,
+      int i0, int i1, int i2, int i3) {
+    int numNegs = numNegatives(i0, i1, i2, i3);
+    // There are two special vertices, that can be modelled like this:
+    //   index == -2:   x,y = -r*s,ymax+h
+    //   index == -1:   x,y = r,ymin-h
+    // with
+    //   limit r->inf
+    //   limit s->inf
+    //   ymax: max y of regular points
+    //   ymin: min y of regular points
+    //   h: ymax-ymin
+    if(numNegs==2) {
+      // -1 and -2 .
+      Util.myAssert(Math.min(i0,0) + Math.min(i1,0) + Math.min(i2,0)
+          + Math.min(i3,0) == -3);
+    }
+    Boolean convex = null;
+    // Below, don't think about angles, but think about orientation of
+    // triangles, using the corkscrew rule.
+    // Both p2,p0,p3 and p3,p1,p2 must have orientation in -z direction.
+    if(numNegs==0) {
+      convex =
+          coords.orient2d(i2, i0, i3)==-1
+       && coords.orient2d(i3, i1, i2)==-1 ;
+      // Email from Mark de Berg, dd 170516:
+      //   For the "normal" points, the convexity test is not necessary: when
+      //   the two triangles do not form a convex quadrilateral, then the
+      //   in-circle test will always fail.
+      // To preserve the semantics of swapIsConvex(), we will still calculate
+      // the convexity.
+    }
+    else if(numNegs==1) {
+      if(i0==-2) {
+        convex =
+            coords.compareYThenX(i3, i2)>0  // triangle p2,p0,p3 == p0,p3,p2
+         && coords.orient2d(i3, i1, i2)==-1;
+      }
+      else if(i0==-1) {
+        convex =
+            coords.compareYThenX(i2, i3)>0  // triangle p2,p0,p3 == p0,p3,p2
+            && coords.orient2d(i3, i1, i2)==-1;
+      }
+      else if(i1==-2) {
+        convex =
+            coords.orient2d(i2, i0, i3)==-1
+         && coords.compareYThenX(i2, i3)>0; // triangle p3,p1,p2 == p1,p2,p3
+      }
+      else if(i1==-1) {
+        convex =
+            coords.orient2d(i2, i0, i3)==-1
+         && coords.compareYThenX(i3, i2)>0;
+      }
+      else if(i2==-2) {
+        convex =
+            coords.compareYThenX(i0, i3)>0  // triangle p2,p0,p3
+         && coords.compareYThenX(i3, i1)>0; // triangle p3,p1,p2 == p2,p3,p1
+      }
+      else if(i2==-1) {
+        convex =
+            coords.compareYThenX(i3, i0)>0  // triangle p2,p0,p3
+         && coords.compareYThenX(i1, i3)>0; // triangle p3,p1,p2 == p2,p3,p1
+      }
+      else if(i3==-2) {
+        convex =
+            coords.compareYThenX(i2, i0)>0  // triangle p2,p0,p3 = p3,p2,p0
+         && coords.compareYThenX(i1, i2)>0; // triangle p3,p1,p2
+      }
+      else if(i3==-1) {
+        convex =
+            coords.compareYThenX(i0, i2)>0  // triangle p2,p0,p3 = p3,p2,p0
+         && coords.compareYThenX(i2, i1)>0; // triangle p3,p1,p2
+      }
+      else {
+        throw new IllegalStateException("no negative index found.");
+      }
+    }
+    else if(numNegs==2) {
+      if(i0<0) {
+        if(i1<0) {
+          throw new IllegalStateException("illegal edge to flip");
+        }
+        else if(i2<0) {
+          if(i0==-2) {
+            Util.myAssert(i2==-1);
+            convex =
+                true                   // triangle p2,p0,p3
+             && coords.compareYThenX(i1, i3)>0; // triangle p3,p1,p2 = p2,p3,p1
+          }
+          else if(i0==-1) {
+            Util.myAssert(i2==-2);
+            convex =
+                false                  // triangle p2,p0,p3
+             && coords.compareYThenX(i3, i1)>0; // triangle p3,p1,p2 = p2,p3,p1
+          }
+        }
+        else if(i3<0) {
+          if(i3==-2) {
+            Util.myAssert(i0==-1);
+            convex =
+                true                   // triangle p2,p0,p3 = p3,p2,p0
+             && coords.compareYThenX(i1, i2)>0; // triangle p3,p1,p2
+          }
+          else if(i3==-1) {
+            Util.myAssert(i0==-2);
+            convex =
+                false                  // triangle p2,p0,p3 = p3,p2,p0
+             && coords.compareYThenX(i2, i1)>0; // triangle p3,p1,p2
+          }
+        }
+      }
+      else if(i1<0) {
+        Util.myAssert(i0>=0);
+        if(i2<0) {
+          if(i2==-2) {
+            Util.myAssert(i1==-1);
+            convex =
+                coords.compareYThenX(i0, i3)>0  // triangle p2,p0,p3
+             && true;                  // triangle p3,p1,p2 = p2,p3,p1
+          }
+          else if(i2==-1) {
+            Util.myAssert(i1==-2);
+            convex =
+                coords.compareYThenX(i3, i0)>0  // triangle p2,p0,p3
+             && false;                 // triangle p3,p1,p2 = p2,p3,p1
+          }
+        }
+        else if(i3<0) {
+          if(i3==-2) {
+            Util.myAssert(i1==-1);
+            convex =
+                coords.compareYThenX(i2, i0)>0  // triangle p2,p0,p3 = p3,p2,p0
+             && false;                 // triangle p3,p1,p2
+          }
+          else if(i3==-1) {
+            Util.myAssert(i1==-2);
+            convex =
+                coords.compareYThenX(i0, i2)>0  // triangle p2,p0,p3 = p3,p2,p0
+             && true;                  // triangle p3,p1,p2
+          }
+        }
+      }
+      else if(i2<0) {
+        Util.myAssert(i3<0);
+        if(i3==-2) {
+          Util.myAssert(i2==-1);
+          convex =
+              false                  // triangle p2,p0,p3
+           && true;                  // triangle p3,p1,p2
+        }
+        else if(i3==-1) {
+          Util.myAssert(i2==-2);
+          convex =
+              true                   // triangle p2,p0,p3
+           && false;                 // triangle p3,p1,p2
+        }
+      }
+      else {
+        throw new IllegalStateException("no two negative indexes found.");
+      }
+    }
+    else {
+      throw new IllegalStateException("numNegs: " + numNegs);
+    }
+    Util.myAssert(convex!=null);
+    return convex;
+  }
+}
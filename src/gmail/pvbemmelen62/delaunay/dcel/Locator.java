@@ -0,0 +1,206 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Point location in a finished Dcel by jump-and-walk: a coarse grid over the
+ * bounding box of the points holds, per cell, the vertex nearest to the cell
+ * center; a query jumps to the vertex of its cell and walks from there with
+ * Dcel.walk . A query in the same cell as the previous query with the same
+ * Location walks from the previous result instead, which is shorter if the
+ * queries come in an order in which consecutive ones lie near each other.
+ * <p>
+ * The Dcel must be compacted, see Dcel.compact(), so that Face.index numbers
+ * the faces, and must not change while the Locator is in use. Locating only
+ * reads, and creates no objects, so threads may locate concurrently, each
+ * with its own Location.
+ */
+public class Locator {
+
+  /** Average number of points per grid cell. */
+  public static final int POINTS_PER_CELL = 4;
+
+  /** What contains the located point. */
+  public enum Kind {
+    /** The interior of Location.edge.face . */
+    FACE,
+    /** Location.edge, not at its end points. */
+    EDGE,
+    /** Location.edge.origin . */
+    VERTEX,
+    /** Outside the convex hull of the points: the interior of
+     *  Location.edge.face, which has vertex -1 or -2 ; or, beyond the top
+     *  triangle, Location.edge.face is the outer face {-2,-1,iLargest} and
+     *  (x,y) lies on the +z side of Location.edge.twin . */
+    OUTSIDE
+  }
+  /** Result of locate; may be reused for any number of queries. */
+  public static class Location {
+    public Kind kind;
+    public HalfEdge edge;
+    /** Locator and grid cell of the previous query. */
+    private Locator locator;
+    private int cell = -1;
+
+    /**
+     * Returns Face.index of a triangle of the points that contains the
+     * location, or -1 if kind is OUTSIDE or if there is no such triangle.
+     */
+    public int face() {
+      switch(kind) {
+      case FACE:
+        return edge.face.index;
+      case EDGE:
+        return isOutside(edge) ? edge.twin.face.index : edge.face.index;
+      case VERTEX:
+        // Around the vertex, to a face without a special vertex.
+        HalfEdge h = edge;
+        do {
+          if(!isOutside(h)) {
+            return h.face.index;
+          }
+          h = h.twin.next;
+        }
+        while(h!=edge);
+        return -1;
+      default:
+        return -1;
+      }
+    }
+
+    public String toString() {
+      return kind + " " + (edge==null ? null : edge.toStringShort());
+    }
+  }
+
+  private Dcel dcel;
+  private Coordinates coordinates;
+  private MyRect rect;
+  private int numColumns;
+  private int numRows;
+  private double cellWidth;
+  private double cellHeight;
+  /** start[column + numColumns*row] : index of the vertex to walk from. */
+  private int[] start;
+
+  /** @param dcel compacted, and not changed while the Locator is used. */
+  public Locator(Dcel dcel) {
+    this.dcel = dcel;
+    this.coordinates = dcel.coordinates;
+    int n = coordinates.size();
+    rect = MyRect.fromCoordinates(coordinates);
+    // Cells about square, about POINTS_PER_CELL points per cell.
+    double area = Math.max(rect.width()*rect.height(), Double.MIN_NORMAL);
+    double side = Math.sqrt(area * POINTS_PER_CELL / n);
+    numColumns = clamp((int)(rect.width()/side), 1, n);
+    numRows = clamp((int)(rect.height()/side), 1, Math.max(1, n/numColumns));
+    cellWidth = rect.width()/numColumns;
+    cellHeight = rect.height()/numRows;
+    start = new int[numColumns*numRows];
+    double[] distance = new double[start.length];
+    Arrays.fill(start, -1);
+    for(int i=0; i<n; ++i) {
+      if(dcel.getVertex(i)==null) {
+        continue;
+      }
+      double x = coordinates.x(i);
+      double y = coordinates.y(i);
+      int column = column(x);
+      int row = row(y);
+      double dx = x - (rect.minX + (column+0.5)*cellWidth);
+      double dy = y - (rect.minY + (row+0.5)*cellHeight);
+      double d = dx*dx + dy*dy;
+      int cell = column + numColumns*row;
+      if(start[cell]==-1 || d<distance[cell]) {
+        start[cell] = i;
+        distance[cell] = d;
+      }
+    }
+    // Empty cells walk from the vertex of the previous non-empty cell.
+    int last = iFirst();
+    for(int cell=0; cell<start.length; ++cell) {
+      if(start[cell]==-1) {
+        start[cell] = last;
+      }
+      else {
+        last = start[cell];
+      }
+    }
+  }
+  private static int clamp(int i, int min, int max) {
+    return Math.max(min, Math.min(max, i));
+  }
+  private int column(double x) {
+    return clamp((int)((x - rect.minX)/cellWidth), 0, numColumns-1);
+  }
+  private int row(double y) {
+    return clamp((int)((y - rect.minY)/cellHeight), 0, numRows-1);
+  }
+  /** Vertex of the first non-empty cell. */
+  private int iFirst() {
+    for(int i : start) {
+      if(i!=-1) {
+        return i;
+      }
+    }
+    return dcel.iLargest;
+  }
+  /** Bounding box of the points, which the grid covers. */
+  public MyRect getRect() {
+    return rect;
+  }
+  /** Number of grid cells. */
+  public int getNumCells() {
+    return start.length;
+  }
+  /**
+   * Finds what contains (x,y) , and puts it in location.
+   * @return location.
+   */
+  public Location locate(double x, double y, Location location) {
+    int cell = column(x) + numColumns*row(y);
+    HalfEdge h;
+    if(location.locator==this && location.cell==cell
+        && location.edge.face!=dcel.outerFace) {
+      h = location.edge;
+    }
+    else {
+      h = dcel.getVertex(start[cell]).edge;
+    }
+    location.locator = this;
+    location.cell = cell;
+    h = dcel.walk(h, x, y, true);
+    if(h.face==dcel.outerFace) {
+      location.kind = Kind.OUTSIDE;
+      location.edge = h;
+    }
+    else if(dcel.orientation(h, x, y)!=0) {
+      location.kind = isOutside(h) ? Kind.OUTSIDE : Kind.FACE;
+      location.edge = h;
+    }
+    else if(isAt(h.origin.index, x, y)) {
+      location.kind = Kind.VERTEX;
+      location.edge = h;
+    }
+    else if(isAt(h.twin.origin.index, x, y)) {
+      location.kind = Kind.VERTEX;
+      location.edge = h.twin;
+    }
+    else {
+      location.kind = Kind.EDGE;
+      location.edge = h;
+    }
+    return location;
+  }
+  /** Whether h.face has vertex -1 or -2 . */
+  private static boolean isOutside(HalfEdge h) {
+    return h.origin.index<0 || h.next.origin.index<0
+        || h.prev.origin.index<0;
+  }
+  private boolean isAt(int i, double x, double y) {
+    return i>=0 && coordinates.x(i)==x && coordinates.y(i)==y;
+  }
+}
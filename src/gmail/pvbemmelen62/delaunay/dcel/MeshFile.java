@@ -0,0 +1,182 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.channels.FileChannel.*;
+import java.nio.file.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Binary mesh file, little-endian, written and read through memory mapped
+ * buffers, so that neither formats nor parses numbers:
+ * <ul>
+ *   <li>header of HEADER_SIZE bytes: the ints MAGIC, VERSION, vertex type
+ *     (DOUBLE_VERTICES or INT_VERTICES), number of vertices, number of
+ *     triangles, and 0;</li>
+ *   <li>vertex block: for each point x and y, as doubles or as ints;</li>
+ *   <li>triangle block: for each triangle its three point indices, as
+ *     ints, in -z direction.</li>
+ * </ul>
+ * The vertices are all points of the Coordinates, also those not in the
+ * triangulation; the triangles are those of the points, without the
+ * special vertices -1 and -2 . Each block must be below 2^31 bytes.
+ */
+public class MeshFile {
+
+  /** "DTMF" in the first four bytes of the file. */
+  public static final int MAGIC = 0x464D5444;
+  public static final int VERSION = 1;
+  public static final int DOUBLE_VERTICES = 0;
+  public static final int INT_VERTICES = 1;
+  public static final int HEADER_SIZE = 24;
+
+  private int vertexType;
+  private int numVertices;
+  private int numTriangles;
+  private ByteBuffer vertexBlock;
+  private ByteBuffer triangleBlock;
+
+  private MeshFile(int vertexType, int numVertices, int numTriangles,
+      ByteBuffer vertexBlock, ByteBuffer triangleBlock) {
+    this.vertexType = vertexType;
+    this.numVertices = numVertices;
+    this.numTriangles = numTriangles;
+    this.vertexBlock = vertexBlock;
+    this.triangleBlock = triangleBlock;
+  }
+  /**
+   * Writes the points and triangles of dcel to path, in time linear in the
+   * number of halfedges; integer Coordinates as INT_VERTICES.
+   */
+  public static void write(Dcel dcel, Path path) throws IOException {
+    Coordinates coordinates = dcel.coordinates;
+    int numVertices = coordinates.size();
+    int numTriangles = 0;
+    for(HalfEdge h : dcel.edges) {
+      if(isTriangle(h)) {
+        ++numTriangles;
+      }
+    }
+    boolean ints = coordinates.isInteger();
+    long vertexBytes = (long)numVertices * (ints ? 8 : 16);
+    long triangleBytes = 12L * numTriangles;
+    checkBlockSize(vertexBytes);
+    checkBlockSize(triangleBytes);
+    try(FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0,
+          HEADER_SIZE + vertexBytes);
+      buffer.order(ByteOrder.LITTLE_ENDIAN);
+      buffer.putInt(MAGIC).putInt(VERSION)
+          .putInt(ints ? INT_VERTICES : DOUBLE_VERTICES)
+          .putInt(numVertices).putInt(numTriangles).putInt(0);
+      for(int i=0; i<numVertices; ++i) {
+        if(ints) {
+          buffer.putInt((int)coordinates.x(i))
+              .putInt((int)coordinates.y(i));
+        }
+        else {
+          buffer.putDouble(coordinates.x(i)).putDouble(coordinates.y(i));
+        }
+      }
+      MappedByteBuffer triangles = channel.map(MapMode.READ_WRITE,
+          HEADER_SIZE + vertexBytes, triangleBytes);
+      triangles.order(ByteOrder.LITTLE_ENDIAN);
+      dcel.forEachTriangle((i0, i1, i2) ->
+          triangles.putInt(i0).putInt(i1).putInt(i2));
+    }
+  }
+  /** Whether h is the edge of its face, and that face a triangle of
+   *  points, as visited by Dcel.forEachTriangle . */
+  private static boolean isTriangle(HalfEdge h) {
+    return h.inUse && h.face.edge==h && h.origin.index>=0
+        && h.next.origin.index>=0 && h.prev.origin.index>=0;
+  }
+  private static void checkBlockSize(long numBytes) {
+    if(numBytes>Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Block of " + numBytes
+          + " bytes too large");
+    }
+  }
+  /**
+   * Maps the file at path, written by write, for reading; the values are
+   * read from the mapped file as they are asked for.
+   * @throws IOException if the file is not a mesh file of this VERSION.
+   */
+  public static MeshFile read(Path path) throws IOException {
+    try(FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.READ)) {
+      long size = channel.size();
+      if(size<HEADER_SIZE) {
+        throw new IOException(path + ": not a mesh file");
+      }
+      ByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      if(header.getInt(0)!=MAGIC || header.getInt(4)!=VERSION) {
+        throw new IOException(path + ": not a mesh file of version "
+            + VERSION);
+      }
+      int vertexType = header.getInt(8);
+      int numVertices = header.getInt(12);
+      int numTriangles = header.getInt(16);
+      long vertexBytes = (long)numVertices
+          * (vertexType==INT_VERTICES ? 8 : 16);
+      long triangleBytes = 12L * numTriangles;
+      if((vertexType!=INT_VERTICES && vertexType!=DOUBLE_VERTICES)
+          || numVertices<0 || numTriangles<0
+          || size!=HEADER_SIZE + vertexBytes + triangleBytes) {
+        throw new IOException(path + ": inconsistent header");
+      }
+      ByteBuffer vertexBlock = channel.map(MapMode.READ_ONLY, HEADER_SIZE,
+          vertexBytes).order(ByteOrder.LITTLE_ENDIAN);
+      ByteBuffer triangleBlock = channel.map(MapMode.READ_ONLY,
+          HEADER_SIZE + vertexBytes, triangleBytes)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      return new MeshFile(vertexType, numVertices, numTriangles,
+          vertexBlock, triangleBlock);
+    }
+  }
+  public int getNumVertices() {
+    return numVertices;
+  }
+  public int getNumTriangles() {
+    return numTriangles;
+  }
+  /** Whether the vertices are INT_VERTICES. */
+  public boolean isInteger() {
+    return vertexType==INT_VERTICES;
+  }
+  public double x(int i) {
+    return isInteger() ? vertexBlock.getInt(8*i)
+        : vertexBlock.getDouble(16*i);
+  }
+  public double y(int i) {
+    return isInteger() ? vertexBlock.getInt(8*i+4)
+        : vertexBlock.getDouble(16*i+8);
+  }
+  /** Returns vertex j, 0 to 2, of triangle t. */
+  public int vertex(int t, int j) {
+    return triangleBlock.getInt(12*t + 4*j);
+  }
+  /** The vertices, copied into Coordinates; integer if isInteger() . */
+  public Coordinates toCoordinates() {
+    if(isInteger()) {
+      int[] xy = new int[2*numVertices];
+      vertexBlock.asIntBuffer().get(xy);
+      int[] xs = new int[numVertices];
+      int[] ys = new int[numVertices];
+      for(int i=0; i<numVertices; ++i) {
+        xs[i] = xy[2*i];
+        ys[i] = xy[2*i+1];
+      }
+      return Coordinates.ofInts(xs, ys);
+    }
+    double[] xy = new double[2*numVertices];
+    vertexBlock.asDoubleBuffer().get(xy);
+    return Coordinates.interleaved(xy);
+  }
+}
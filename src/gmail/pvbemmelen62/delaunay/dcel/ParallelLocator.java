@@ -0,0 +1,89 @@
+package gmail.pvbemmelen62.delaunay.dcel;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.Locator.*;
+
+/**
+ * Locates many points at once, over a ForkJoinPool: the queries are split
+ * into ranges of at most threshold points, and each range is sorted on the
+ * Hilbert index of its points and located in that order with its own
+ * Location, so that consecutive walks start near each other. The tasks only
+ * read the Dcel, through the Locator, and write their own part of the result.
+ */
+public class ParallelLocator {
+
+  public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+  private Locator locator;
+  private ForkJoinPool pool;
+  private int threshold;
+
+  public ParallelLocator(Locator locator) {
+    this(locator, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+  }
+  public ParallelLocator(Locator locator, ForkJoinPool pool, int threshold) {
+    this.locator = locator;
+    this.pool = pool;
+    this.threshold = Math.max(threshold, 1);
+  }
+  /**
+   * Returns faces, with faces[k] the Face.index of a triangle that contains
+   * point (xs[k],ys[k]), or -1 if the point lies outside the convex hull.
+   * @see Locator.Location#face()
+   */
+  public int[] locate(double[] xs, double[] ys) {
+    if(xs.length!=ys.length) {
+      throw new IllegalArgumentException("xs.length " + xs.length
+          + " != ys.length " + ys.length);
+    }
+    int[] faces = new int[xs.length];
+    pool.invoke(new LocateTask(xs, ys, faces, 0, xs.length));
+    return faces;
+  }
+
+  private class LocateTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private double[] xs;
+    private double[] ys;
+    private int[] faces;
+    private int from;
+    private int to;
+
+    LocateTask(double[] xs, double[] ys, int[] faces, int from, int to) {
+      this.xs = xs;
+      this.ys = ys;
+      this.faces = faces;
+      this.from = from;
+      this.to = to;
+    }
+    @Override
+    protected void compute() {
+      if(to-from <= threshold) {
+        locateSorted();
+        return;
+      }
+      int mid = (from+to) >>> 1;
+      invokeAll(new LocateTask(xs, ys, faces, from, mid),
+          new LocateTask(xs, ys, faces, mid, to));
+    }
+    private void locateSorted() {
+      // As HilbertCurve.sort : Hilbert index in the high 32 bits, the
+      // offset of the query in the low 31.
+      MyRect rect = locator.getRect();
+      long[] keys = new long[to-from];
+      for(int k=from; k<to; ++k) {
+        keys[k-from] = (HilbertCurve.index(rect, xs[k], ys[k]) << 31)
+            | (k-from);
+      }
+      Arrays.sort(keys);
+      Location location = new Location();
+      for(long key : keys) {
+        int k = from + (int)(key & Integer.MAX_VALUE);
+        faces[k] = locator.locate(xs[k], ys[k], location).face();
+      }
+    }
+  }
+}
@@ -0,0 +1,168 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.lang.management.*;
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Locator.*;
+import gmail.pvbemmelen62.delaunay.test.Points.*;
+
+/**
+ * Reports time and allocation per point of triangulating, of the predicates,
+ * and of locating points in the history DAG, for each Points.Distribution .
+ * A quick counterpart of the JMH benchmarks in bench/ : every case runs once
+ * to warm up and once measured, and allocation is that of the current thread.
+ * Arguments: the numbers of points, by default 1000 10000 100000 .
+ */
+public class Benchmarks {
+
+  /** Keeps the results of the predicates alive. */
+  public static int sink;
+
+  public static void main(String[] args) {
+    int[] sizes = { 1000, 10000, 100000 };
+    if(args.length > 0) {
+      sizes = new int[args.length];
+      for(int i=0; i<args.length; ++i) {
+        sizes[i] = Integer.parseInt(args[i]);
+      }
+    }
+    for(Distribution distribution : Distribution.values()) {
+      for(int numPoints : sizes) {
+        System.out.println(distribution + ", " + numPoints + " points:");
+        run(distribution, numPoints);
+      }
+    }
+  }
+  private static void run(Distribution distribution, int numPoints) {
+    Point[] points = distribution.create(numPoints, new Random(0L));
+    Coordinates coords = Coordinates.of(points);
+    Random random = new Random(1L);
+
+    measure("incremental, history DAG", numPoints, () ->
+        new DelaunayTriangulation(coords, options(LocationMode.HISTORY_DAG)));
+    measure("incremental, walk", numPoints, () ->
+        new DelaunayTriangulation(coords, options(LocationMode.WALK)));
+    measure("incremental, hierarchy", numPoints, () ->
+        new DelaunayTriangulation(coords, options(LocationMode.HIERARCHY)));
+    measure("divide and conquer", numPoints, () ->
+        new DivideAndConquerTriangulator().triangulate(coords));
+
+    int[] quads = clockwiseQuads(points, numPoints, random);
+    measure("Circle.inCircle", numPoints, () -> {
+      for(int k=0; k<quads.length; k+=4) {
+        sink += Circle.inCircle(points[quads[k]], points[quads[k+1]],
+            points[quads[k+2]], points[quads[k+3]]) ? 1 : 0;
+      }
+    });
+    measure("Coordinates.incircle", numPoints, () -> {
+      for(int k=0; k<quads.length; k+=4) {
+        sink += coords.incircle(quads[k], quads[k+1], quads[k+2],
+            quads[k+3]);
+      }
+    });
+    measure("Triangle.getOrientation", numPoints, () -> {
+      for(int k=0; k<quads.length; k+=4) {
+        sink += Triangle.getOrientation(points[quads[k]],
+            points[quads[k+1]], points[quads[k+3]]);
+      }
+    });
+
+    DelaunayTriangulation dt;
+    try {
+      Options options = options(LocationMode.HISTORY_DAG);
+      options.retention = Retention.KEEP;
+      dt = new DelaunayTriangulation(coords, options);
+    }
+    catch(RuntimeException | AssertionError e) {
+      System.out.println("  findContainingLeafNodes failed: " + e);
+      return;
+    }
+    PointLocationStructure pls = dt.getPointLocationStructure();
+    double[] queries = queryPoints(points, numPoints, random);
+    measure("findContainingLeafNodes", numPoints, () -> {
+      for(int k=0; k<queries.length; k+=2) {
+        sink += pls.findContainingLeafNodes(queries[k], queries[k+1]).length;
+      }
+    });
+    Descent descent = new Descent();
+    measure("findContainingLeafNodes, Descent", numPoints, () -> {
+      for(int k=0; k<queries.length; k+=2) {
+        sink += pls.findContainingLeafNodes(queries[k], queries[k+1],
+            descent);
+      }
+    });
+    Location location = new Location();
+    measure("locate", numPoints, () -> {
+      for(int k=0; k<queries.length; k+=2) {
+        sink += dt.locate(queries[k], queries[k+1], location).kind.ordinal();
+      }
+    });
+  }
+  private static Options options(LocationMode locationMode) {
+    Options options = new Options();
+    options.locationMode = locationMode;
+    return options;
+  }
+  /** Runs r twice, and reports the second run per point. */
+  private static void measure(String name, int numPoints, Runnable r) {
+    try {
+      r.run();
+      long bytes0 = allocatedBytes();
+      long t0 = System.nanoTime();
+      r.run();
+      long t1 = System.nanoTime();
+      long bytes1 = allocatedBytes();
+      System.out.println("  " + name + " ns/point: " + (t1-t0)/numPoints
+          + ", bytes/point: " + (bytes1-bytes0)/numPoints);
+    }
+    catch(RuntimeException | AssertionError e) {
+      System.out.println("  " + name + " failed: " + e);
+    }
+  }
+  /** Bytes allocated by the current thread so far. */
+  public static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    return ((com.sun.management.ThreadMXBean)bean)
+        .getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+  /**
+   * Returns count quadruples {a,b,c,d} of indices into points, with a,b,c in
+   * -z direction as Circle.inCircle requires.
+   */
+  public static int[] clockwiseQuads(Point[] points, int count,
+      Random random) {
+    int n = points.length;
+    int[] quads = new int[4*count];
+    for(int k=0; k<count; ) {
+      int a = random.nextInt(n);
+      int b = random.nextInt(n);
+      int c = random.nextInt(n);
+      int orientation = Triangle.getOrientation(points[a], points[b],
+          points[c]);
+      if(orientation==0) {
+        continue;
+      }
+      quads[4*k] = a;
+      quads[4*k+1] = orientation<0 ? b : c;
+      quads[4*k+2] = orientation<0 ? c : b;
+      quads[4*k+3] = random.nextInt(n);
+      ++k;
+    }
+    return quads;
+  }
+  /** Returns count points {x,y}, uniform in the bounding box of points. */
+  public static double[] queryPoints(Point[] points, int count,
+      Random random) {
+    MyRect rect = MyRect.fromPoints(points);
+    double[] queries = new double[2*count];
+    for(int k=0; k<count; ++k) {
+      queries[2*k] = rect.minX + rect.width()*random.nextDouble();
+      queries[2*k+1] = rect.minY + rect.height()*random.nextDouble();
+    }
+    return queries;
+  }
+}
@@ -0,0 +1,221 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Checks that Coordinates.incircle, which filters with the lifts, agrees
+ * with Predicates.incircle, and that parallel arrays, an interleaved array
+ * and a Point[] give the same triangulation, and that add appends points
+ * without writing the arrays passed in. Checks the same for integer
+ * coordinates, whose predicates are exact in integer arithmetic, and reports
+ * the time per incircle test of both.
+ */
+public class CoordinatesTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Random random = new Random(0L);
+
+    testIncircle("random points", Points.randomPoints(1000, random), 0);
+    testIncircle("grid points", Points.gridPoints(1000, random), 0);
+    testIncircle("translated grid points", Points.gridPoints(1000, random),
+        1e6);
+    testIncircle("cocircular points", Points.circlePoints(1000, random), 0);
+
+    Point[] points = Points.randomPoints(numPoints, random);
+    testFaces("random points", points);
+    testFaces("grid points", Points.gridPoints(numPoints, random));
+    testAdd();
+    testInts(numPoints, random);
+    System.out.println("OK");
+  }
+  private static void testInts(int numPoints, Random random) {
+    int bound = Coordinates.INT_BOUND - 1;
+    // Extreme points, and a small grid with many cocircular points.
+    int[] xs = new int[numPoints];
+    int[] ys = new int[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      boolean grid = i%2==0;
+      xs[i] = grid ? random.nextInt(64) - bound : bound - random.nextInt(8);
+      ys[i] = grid ? random.nextInt(64) + bound - 64 : random.nextInt(8);
+    }
+    Coordinates ints = Coordinates.ofInts(xs, ys);
+    Point[] points = new Point[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      points[i] = new Point(xs[i], ys[i]);
+    }
+    int numZeros = 0;
+    for(int k=0; k<100000; ++k) {
+      int a = random.nextInt(numPoints);
+      int b = random.nextInt(numPoints);
+      int c = random.nextInt(numPoints);
+      int d = random.nextInt(numPoints);
+      int expected = Predicates.incircle(points[a], points[b], points[c],
+          points[d]);
+      Util.myAssert(ints.incircle(a, b, c, d)==expected);
+      Util.myAssert(ints.orient2d(a, b, c)
+          ==Predicates.orient2d(points[a], points[b], points[c]));
+      numZeros += expected==0 ? 1 : 0;
+    }
+    System.out.println("integer points: incircle zero " + numZeros
+        + " times");
+
+    // Millimetres: a grid of 10 m spacing, and random points.
+    int n = numPoints/2;
+    int[] mmXs = new int[2*n];
+    int[] mmYs = new int[2*n];
+    for(int i=0; i<n; ++i) {
+      mmXs[i] = 10000*(i%100);
+      mmYs[i] = 10000*(i/100);
+      mmXs[n+i] = random.nextInt(1000000) + 5;
+      mmYs[n+i] = random.nextInt(1000000) + 5;
+    }
+    double[] mmXsDouble = new double[2*n];
+    double[] mmYsDouble = new double[2*n];
+    for(int i=0; i<2*n; ++i) {
+      mmXsDouble[i] = mmXs[i];
+      mmYsDouble[i] = mmYs[i];
+    }
+    Options options = new Options();
+    options.deduplicate = true;
+    Coordinates mm = Coordinates.ofInts(mmXs, mmYs);
+    Coordinates mmDouble = new Coordinates(mmXsDouble, mmYsDouble);
+    Triangulator triangulator = new DivideAndConquerTriangulator();
+    DelaunayTriangulation dt = new DelaunayTriangulation(mm, options);
+    Util.myAssert(dt.getDeduplication().getUnique().isInteger());
+    dt.getDcel().validate();
+    Coordinates unique = dt.getDeduplication().getUnique();
+    assertSameFaces(triangulator.triangulate(
+        new DelaunayTriangulation(mmDouble, options).getDeduplication()
+            .getUnique()),
+        triangulator.triangulate(unique));
+    System.out.println("integer millimetres: " + unique.size());
+
+    int[] quads = new int[4*100000];
+    for(int k=0; k<quads.length; ++k) {
+      quads[k] = random.nextInt(unique.size());
+    }
+    Coordinates uniqueDouble = Coordinates.of(toPoints(unique));
+    for(int run=0; run<10; ++run) {
+      long t0 = System.nanoTime();
+      for(int k=0; k<quads.length; k+=4) {
+        Benchmarks.sink += unique.incircle(quads[k], quads[k+1], quads[k+2],
+            quads[k+3]);
+      }
+      long t1 = System.nanoTime();
+      for(int k=0; k<quads.length; k+=4) {
+        Benchmarks.sink += uniqueDouble.incircle(quads[k], quads[k+1],
+            quads[k+2], quads[k+3]);
+      }
+      long t2 = System.nanoTime();
+      if(run==9) {
+        System.out.println("  ns/incircle, integer: "
+            + (t1-t0)/(quads.length/4) + ", double: "
+            + (t2-t1)/(quads.length/4));
+      }
+    }
+
+    Coordinates added = Coordinates.ofInts(new int[] { 1 }, new int[] { 2 });
+    Util.myAssert(added.add(3, 4)==1 && added.x(1)==3 && added.y(1)==4);
+    added.set(0, -5, 6);
+    Util.myAssert(added.x(0)==-5 && added.y(0)==6 && added.lift(0)==61);
+    for(double v : new double[] { 0.5, Coordinates.INT_BOUND }) {
+      try {
+        added.add(v, 0);
+        Util.myAssert(false);
+      }
+      catch(IllegalArgumentException e) {
+      }
+    }
+  }
+  private static Point[] toPoints(Coordinates coords) {
+    Point[] points = new Point[coords.size()];
+    for(int i=0; i<points.length; ++i) {
+      points[i] = coords.getPoint(i);
+    }
+    return points;
+  }
+  private static void testAdd() {
+    double[] xy = { 1, 2, 3, 4 };
+    Coordinates coords = Coordinates.interleaved(xy);
+    for(int i=2; i<100; ++i) {
+      Util.myAssert(coords.add(2*i+1, 2*i+2)==i);
+    }
+    Util.myAssert(coords.size()==100);
+    Util.myAssert(xy.length==4 && xy[2]==3 && xy[3]==4);
+    for(int i=0; i<100; ++i) {
+      Util.myAssert(coords.x(i)==2*i+1 && coords.y(i)==2*i+2);
+      Util.myAssert(coords.lift(i)==(2*i+1)*(2*i+1) + (2*i+2)*(2*i+2));
+    }
+    coords = Coordinates.interleaved(xy);
+    coords.set(1, 5, 6);
+    Util.myAssert(xy[2]==3 && xy[3]==4);
+    Util.myAssert(coords.x(0)==1 && coords.y(0)==2);
+    Util.myAssert(coords.x(1)==5 && coords.y(1)==6 && coords.lift(1)==61);
+  }
+  private static void testIncircle(String name, Point[] points,
+      double offset) {
+    for(Point p : points) {
+      p.x += offset;
+      p.y += offset;
+    }
+    Coordinates coords = Coordinates.of(points);
+    Random random = new Random(1L);
+    int n = points.length;
+    int numZeros = 0;
+    for(int k=0; k<100000; ++k) {
+      int a = random.nextInt(n);
+      int b = random.nextInt(n);
+      int c = random.nextInt(n);
+      int d = random.nextInt(n);
+      int expected = Predicates.incircle(points[a], points[b], points[c],
+          points[d]);
+      Util.myAssert(coords.incircle(a, b, c, d)==expected,
+          name + ": " + a + " " + b + " " + c + " " + d);
+      if(expected==0) {
+        ++numZeros;
+      }
+    }
+    System.out.println(name + ": incircle zero " + numZeros + " times");
+  }
+  private static void testFaces(String name, Point[] points) {
+    System.out.println(name + ": " + points.length);
+    int n = points.length;
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    double[] xy = new double[2*n];
+    for(int i=0; i<n; ++i) {
+      xs[i] = xy[2*i] = points[i].x;
+      ys[i] = xy[2*i+1] = points[i].y;
+    }
+    Options options = new Options();
+    options.locationMode = LocationMode.WALK;
+    Dcel expected = new DelaunayTriangulation(points, options).getDcel();
+    assertSameFaces(expected,
+        new DelaunayTriangulation(new Coordinates(xs, ys), options)
+            .getDcel());
+    assertSameFaces(expected,
+        new DelaunayTriangulation(Coordinates.interleaved(xy), options)
+            .getDcel());
+    // Grid points have several Delaunay triangulations, so compare with the
+    // same algorithm.
+    Triangulator triangulator = new DivideAndConquerTriangulator();
+    assertSameFaces(triangulator.triangulate(points),
+        triangulator.triangulate(Coordinates.interleaved(xy)));
+  }
+  private static void assertSameFaces(Dcel dcel0, Dcel dcel1) {
+    dcel1.validate();
+    TreeSet<Face> faces0 = dcel0.getFaces();
+    TreeSet<Face> faces1 = dcel1.getFaces();
+    Util.myAssert(faces0.size()==faces1.size());
+    Iterator<Face> iter = faces0.iterator();
+    for(Face f : faces1) {
+      Util.myAssert(f.compareTo(iter.next())==0);
+    }
+  }
+}
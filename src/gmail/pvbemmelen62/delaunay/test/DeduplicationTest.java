@@ -0,0 +1,105 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+
+/**
+ * Adds exact and near copies to random points, checks Deduplication against
+ * merging by comparing every pair of points, and triangulates with
+ * Options.deduplicate ; reports the time per point of Deduplication and of
+ * merging equal points through a TreeSet, as done before.
+ */
+public class DeduplicationTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Point[] points = withCopies(Points.randomPoints(numPoints, random),
+        1e-9, random);
+    Coordinates coords = Coordinates.of(points);
+    Point[] small = withCopies(Points.randomPoints(3000, random), 1e-9,
+        random);
+    for(double tolerance : new double[] { 0, 1e-8, 1e-3 }) {
+      check(small, tolerance);
+    }
+
+    Options options = new Options();
+    options.deduplicate = true;
+    options.snapTolerance = 1e-8;
+    DelaunayTriangulation dt = new DelaunayTriangulation(points, options);
+    dt.getDcel().validate();
+    Deduplication dedup = dt.getDeduplication();
+    System.out.println("points: " + points.length + ", merged: "
+        + dedup.getNumMerged() + ", faces: "
+        + dt.getDcel().getFaces().size());
+    Util.myAssert(dedup.getNumUnique()==numPoints);
+
+    for(int run=0; run<2; ++run) {
+      long t0 = System.nanoTime();
+      Deduplication d = new Deduplication(coords, 0);
+      long t1 = System.nanoTime();
+      TreeSet<Point> set = new TreeSet<>(
+          DelaunayTriangulation.yThenXComparator);
+      for(Point p : points) {
+        set.add(p);
+      }
+      long t2 = System.nanoTime();
+      Util.myAssert(d.getNumUnique()==set.size());
+      if(run==1) {
+        System.out.println("  ns/point, Deduplication: "
+            + (t1-t0)/points.length + ", TreeSet: " + (t2-t1)/points.length);
+      }
+    }
+    System.out.println("OK");
+  }
+  /** points, plus an equal copy of every tenth point, and a copy within
+   *  offset of every tenth point, in random order. */
+  private static Point[] withCopies(Point[] points, double offset,
+      Random random) {
+    ArrayList<Point> all = new ArrayList<>(Arrays.asList(points));
+    for(int i=0; i<points.length; i+=10) {
+      all.add(new Point(points[i]));
+      all.add(new Point(points[i+5].x + offset*random.nextDouble(),
+          points[i+5].y - offset*random.nextDouble()));
+    }
+    Collections.shuffle(all, random);
+    return all.toArray(new Point[0]);
+  }
+  /** Checks Deduplication against merging, in order, into the first kept
+   *  point within tolerance, found by comparing with every kept point. */
+  private static void check(Point[] points, double tolerance) {
+    Deduplication dedup = new Deduplication(Coordinates.of(points),
+        tolerance);
+    int[] canonical = dedup.getCanonical();
+    int[] representatives = dedup.getRepresentatives();
+    ArrayList<Integer> kept = new ArrayList<>();
+    for(int i=0; i<points.length; ++i) {
+      int found = -1;
+      for(int j=0; j<kept.size() && found==-1; ++j) {
+        if(points[kept.get(j)].distance(points[i]) <= tolerance) {
+          found = j;
+        }
+      }
+      if(found==-1) {
+        found = kept.size();
+        kept.add(i);
+      }
+      // The grid may find another kept point within tolerance.
+      Util.myAssert(points[representatives[canonical[i]]].distance(points[i])
+          <= tolerance);
+      Util.myAssert((found==kept.size()-1 && kept.get(found)==i)
+          == (representatives[canonical[i]]==i));
+    }
+    Util.myAssert(kept.size()==dedup.getNumUnique());
+    Coordinates unique = dedup.getUnique();
+    for(int j=0; j<unique.size(); ++j) {
+      Point p = points[representatives[j]];
+      Util.myAssert(unique.x(j)==p.x && unique.y(j)==p.y);
+    }
+    System.out.println("tolerance " + tolerance + ": " + points.length
+        + " points, " + dedup.getNumUnique() + " unique");
+  }
+}
@@ -0,0 +1,69 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Checks that LocationMode.HIERARCHY creates the same triangles as
+ * LocationMode.WALK, that every level of the DelaunayHierarchy is a valid
+ * triangulation of a subset of the points of the level below, and reports
+ * the number of points per level and the time taken.
+ */
+public class DelaunayHierarchyTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    test("random points", Points.randomPoints(numPoints, random));
+    test("clustered points", Points.clusteredPoints(numPoints, random));
+    test("grid points", Points.gridPoints(numPoints, random));
+    System.out.println("OK");
+  }
+  private static void test(String name, Point[] points) {
+    long t0 = System.nanoTime();
+    DelaunayTriangulation dtWalk = new DelaunayTriangulation(points,
+        LocationMode.WALK);
+    long t1 = System.nanoTime();
+    DelaunayTriangulation dt = new DelaunayTriangulation(points,
+        LocationMode.HIERARCHY);
+    long t2 = System.nanoTime();
+    System.out.println(name + ": " + points.length);
+    System.out.println("  WALK      ms: " + (t1-t0)/1000000);
+    System.out.println("  HIERARCHY ms: " + (t2-t1)/1000000);
+
+    TreeSet<Face> facesWalk = dtWalk.getDcel().getFaces();
+    TreeSet<Face> faces = dt.getDcel().getFaces();
+    Util.myAssert(faces.size()==2*points.length);
+    if(faces.size()==facesWalk.size()) {
+      // Cocircular points may be triangulated differently.
+      int numSame = 0;
+      for(Face f : faces) {
+        numSame += facesWalk.contains(f) ? 1 : 0;
+      }
+      System.out.println("  faces as WALK: " + numSame + " of "
+          + faces.size());
+    }
+
+    DelaunayHierarchy hierarchy = dt.getHierarchy();
+    StringBuilder sb = new StringBuilder("  points per level:");
+    for(int k=0; k<hierarchy.getNumLevels(); ++k) {
+      Dcel level = hierarchy.getLevel(k);
+      level.validate();
+      int numVertices = 0;
+      for(int i=0; i<points.length; ++i) {
+        if(level.getVertex(i)!=null) {
+          ++numVertices;
+          Util.myAssert(k==0 || hierarchy.getLevel(k-1).getVertex(i)!=null);
+        }
+      }
+      Util.myAssert(level.getFaces().size()==2*numVertices);
+      sb.append(" " + numVertices);
+    }
+    System.out.println(sb);
+  }
+}
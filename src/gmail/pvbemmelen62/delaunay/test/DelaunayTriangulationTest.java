@@ -21,6 +21,7 @@ public class DelaunayTriangulationTest {
 // at ...DelaunayTriangulation.triangulate(DelaunayTriangulation.java:82)
 // at ...DelaunayTriangulation.<init>(DelaunayTriangulation.java:67)
 // at ...test.DelaunayTriangulationTest.main(DelaunayTriangulationTest.java:23)
+    // Options.deduplicate merges them first: see DeduplicationTest.
     
     DelaunayTriangulation dt = new DelaunayTriangulation(points);
     
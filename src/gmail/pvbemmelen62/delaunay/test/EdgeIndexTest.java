@@ -0,0 +1,71 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Checks EdgeIndex against a HashMap, and that triangulating with
+ * Options.edgeIndex creates the same triangles as without, reporting the
+ * time taken by both.
+ */
+public class EdgeIndexTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Random random = new Random(0L);
+
+    Dcel dcel = new DelaunayTriangulation(Points.randomPoints(10, random))
+        .getDcel();
+    HalfEdge h = dcel.getOuterFace().edge;
+    EdgeIndex index = new EdgeIndex(0);
+    HashMap<Long,HalfEdge> map = new HashMap<>();
+    for(int i=0; i<200000; ++i) {
+      int i0 = random.nextInt(300)-2;
+      int i1 = random.nextInt(300)-2;
+      Long key = EdgeIndex.key(i0, i1);
+      if(random.nextInt(3)==0) {
+        Util.myAssert(index.remove(i0, i1)==map.remove(key));
+      }
+      else {
+        index.put(i0, i1, h);
+        map.put(key, h);
+      }
+      Util.myAssert(index.size()==map.size());
+      Util.myAssert(index.get(i1, i0)==map.get(EdgeIndex.key(i1, i0)));
+    }
+
+    test("random points", Points.randomPoints(numPoints, random));
+    test("grid points", Points.gridPoints(numPoints, random));
+    System.out.println("OK");
+  }
+  private static void test(String name, Point[] points) {
+    System.out.println(name + ": " + points.length);
+    Options options = new Options();
+    options.locationMode = LocationMode.WALK;
+    Dcel[] dcels = new Dcel[2];
+    for(int run=0; run<2; ++run) {
+      for(int i=0; i<2; ++i) {
+        options.edgeIndex = i==1;
+        long t0 = System.nanoTime();
+        dcels[i] = new DelaunayTriangulation(points, options).getDcel();
+        long t1 = System.nanoTime();
+        if(run==1) {
+          System.out.println("  edgeIndex " + options.edgeIndex + " ms: "
+              + (t1-t0)/1000000);
+        }
+      }
+    }
+    dcels[1].validate();
+    TreeSet<Face> faces0 = dcels[0].getFaces();
+    TreeSet<Face> faces1 = dcels[1].getFaces();
+    Util.myAssert(faces0.size()==faces1.size());
+    Iterator<Face> iter = faces0.iterator();
+    for(Face f : faces1) {
+      Util.myAssert(f.compareTo(iter.next())==0);
+    }
+  }
+}
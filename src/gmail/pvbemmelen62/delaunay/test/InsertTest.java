@@ -0,0 +1,101 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Triangulates half of the points, inserts the other half one by one with
+ * DelaunayTriangulation.insert, and as one batch, and checks that this gives
+ * the triangles of triangulating all points at once; the inserted points
+ * extend beyond the first half, also above its largest point. Checks that a
+ * batch with a coincident point is undone. Reports the amortized time per
+ * insert for each LocationMode, one by one and batched.
+ */
+public class InsertTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Point[] points = Points.randomPoints(numPoints, random);
+    // The first half lies in the middle, so that the second half also lies
+    // outside its convex hull.
+    MyRect rect = MyRect.fromPoints(points).scale(0.5);
+    Point[] inner = Arrays.stream(points).filter(p -> rect.contains(p.x, p.y))
+        .toArray(Point[]::new);
+    Point[] outer = Arrays.stream(points).filter(p -> !rect.contains(p.x, p.y))
+        .toArray(Point[]::new);
+    Point[] all = new Point[numPoints];
+    System.arraycopy(inner, 0, all, 0, inner.length);
+    System.arraycopy(outer, 0, all, inner.length, outer.length);
+    TreeSet<Face> expected = new DelaunayTriangulation(all).getDcel()
+        .getFaces();
+
+    System.out.println("points: " + inner.length + ", inserted: "
+        + outer.length);
+    for(LocationMode mode : LocationMode.values()) {
+      Options options = new Options();
+      options.locationMode = mode;
+      DelaunayTriangulation dt = new DelaunayTriangulation(inner, options);
+      long t0 = System.nanoTime();
+      for(int i=0; i<outer.length; ++i) {
+        int pointIndex = dt.insert(outer[i].x, outer[i].y);
+        Util.myAssert(pointIndex==inner.length+i);
+      }
+      long t1 = System.nanoTime();
+      check(dt, expected);
+      try {
+        dt.insert(outer[0].x, outer[0].y);
+        Util.myAssert(false);
+      }
+      catch(IllegalStateException e) {
+      }
+
+      double[] xs = new double[outer.length];
+      double[] ys = new double[outer.length];
+      for(int i=0; i<outer.length; ++i) {
+        xs[i] = outer[i].x;
+        ys[i] = outer[i].y;
+      }
+      dt = new DelaunayTriangulation(inner, options);
+      TreeSet<Face> innerFaces = new DelaunayTriangulation(inner, options)
+          .getDcel().getFaces();
+      // A copy of a point of the batch, and of a point of the triangulation.
+      for(Point p : new Point[] { outer[outer.length/2], inner[3] }) {
+        double[] xsCopy = Arrays.copyOf(xs, xs.length+1);
+        double[] ysCopy = Arrays.copyOf(ys, ys.length+1);
+        xsCopy[xs.length] = p.x;
+        ysCopy[ys.length] = p.y;
+        try {
+          dt.insert(xsCopy, ysCopy);
+          Util.myAssert(false);
+        }
+        catch(CoincidentPointException e) {
+        }
+        check(dt, innerFaces);
+      }
+      long t2 = System.nanoTime();
+      Util.myAssert(dt.insert(xs, ys)==inner.length);
+      long t3 = System.nanoTime();
+      check(dt, expected);
+      System.out.println("  " + mode + " ns/insert: "
+          + (t1-t0)/outer.length + ", batched: " + (t3-t2)/outer.length);
+    }
+    System.out.println("OK");
+  }
+  private static void check(DelaunayTriangulation dt,
+      TreeSet<Face> expected) {
+    Dcel dcel = dt.getDcel();
+    dcel.validate();
+    TreeSet<Face> faces = dcel.getFaces();
+    Util.myAssert(faces.size()==expected.size());
+    Iterator<Face> iter = expected.iterator();
+    for(Face f : faces) {
+      Util.myAssert(f.compareTo(iter.next())==0);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+import java.util.function.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Checks that forEachTriangle and forEachEdge of Dcel and ArrayDcel visit
+ * each triangle and edge between points exactly once, also after removing
+ * points; reports the time per triangle of forEachTriangle and of
+ * Dcel.getFaces .
+ */
+public class IterationTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    Random random = new Random(0L);
+    Point[] points = Points.randomPoints(numPoints, random);
+    DelaunayTriangulation dt = new DelaunayTriangulation(points);
+    for(int i=0; i<numPoints/10; ++i) {
+      dt.remove(i);
+    }
+    Dcel dcel = dt.getDcel();
+    TreeSet<int[]> expected = new TreeSet<>(Triangle.triangleComparator);
+    for(Face f : dcel.getFaces()) {
+      int[] tri = f.calcTriangle();
+      if(tri[0]>=0 && tri[1]>=0 && tri[2]>=0) {
+        expected.add(tri);
+      }
+    }
+    check(expected, dcel::forEachTriangle, dcel::forEachEdge);
+    int numTriangles = expected.size();
+    ArrayDcel arrayDcel = new ArrayDelaunayTriangulation(points)
+        .getArrayDcel();
+    expected.clear();
+    for(int t=0; t<arrayDcel.getNumTriangles(); ++t) {
+      int[] tri = arrayDcel.calcTriangle(t);
+      if(tri[0]>=0 && tri[1]>=0 && tri[2]>=0) {
+        expected.add(tri);
+      }
+    }
+    check(expected, arrayDcel::forEachTriangle, arrayDcel::forEachEdge);
+
+    long[] sum = new long[1];
+    for(int run=0; run<2; ++run) {
+      long t0 = System.nanoTime();
+      dcel.forEachTriangle((i0, i1, i2) -> sum[0] += i0 + i1 + i2);
+      long t1 = System.nanoTime();
+      for(Face f : dcel.getFaces()) {
+        sum[0] += f.edge.origin.index;
+      }
+      long t2 = System.nanoTime();
+      if(run==1) {
+        System.out.println(numTriangles + " triangles, ns/triangle,"
+            + " forEachTriangle: " + (t1-t0)/numTriangles
+            + ", getFaces: " + (t2-t1)/numTriangles);
+      }
+    }
+    System.out.println("OK");
+  }
+  /** Checks that forEachTriangle visits the triangles of expected once
+   *  each, in -z direction, and forEachEdge their edges. */
+  private static void check(TreeSet<int[]> expected,
+      Consumer<IntTriConsumer> forEachTriangle,
+      Consumer<IntPairConsumer> forEachEdge) {
+    TreeSet<int[]> visited = new TreeSet<>(Triangle.triangleComparator);
+    HashSet<Long> edges = new HashSet<>();
+    forEachTriangle.accept((i0, i1, i2) -> {
+      int[] tri = { i0, i1, i2 };
+      Triangle.toCanonical(tri);
+      Util.myAssert(expected.contains(tri) && visited.add(tri));
+      edges.add(key(i0, i1));
+      edges.add(key(i1, i2));
+      edges.add(key(i2, i0));
+    });
+    Util.myAssert(visited.size()==expected.size());
+    int[] numEdges = new int[1];
+    forEachEdge.accept((i0, i1) -> {
+      Util.myAssert(i0<i1 && edges.remove(key(i0, i1)));
+      ++numEdges[0];
+    });
+    // Edges of the convex hull are in a triangle of points too.
+    Util.myAssert(edges.isEmpty());
+    System.out.println(visited.size() + " triangles, " + numEdges[0]
+        + " edges");
+  }
+  private static long key(int i0, int i1) {
+    return ((long)Math.min(i0, i1) << 32) | Math.max(i0, i1);
+  }
+}
@@ -0,0 +1,119 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Locator.*;
+
+/**
+ * Checks DelaunayTriangulation.locate for random queries in and around the
+ * points, for the points themselves, and for midpoints of grid edges; reports
+ * the queries per second and the bytes allocated per query.
+ */
+public class LocatorTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    test("random points", Points.randomPoints(numPoints, random), random);
+    test("grid points", Points.gridPoints(numPoints, random), random);
+    System.out.println("OK");
+  }
+  private static void test(String name, Point[] points, Random random) {
+    DelaunayTriangulation dt = new DelaunayTriangulation(points);
+    Dcel dcel = dt.getDcel();
+    Location location = new Location();
+    int[] counts = new int[Kind.values().length];
+    // Queries in a box twice the size of the bounding box.
+    MyRect rect = MyRect.fromPoints(points);
+    for(int k=0; k<points.length; ++k) {
+      double x = rect.minX + rect.width()*(2*random.nextDouble() - 0.5);
+      double y = rect.minY + rect.height()*(2*random.nextDouble() - 0.5);
+      check(dcel, x, y, dt.locate(x, y, location));
+      ++counts[location.kind.ordinal()];
+    }
+    for(Point p : points) {
+      dt.locate(p.x, p.y, location);
+      Util.myAssert(location.kind==Kind.VERTEX);
+      check(dcel, p.x, p.y, location);
+    }
+    for(Face f : dcel.getFaces()) {
+      HalfEdge h = f.edge;
+      if(h.origin.index<0 || h.twin.origin.index<0) {
+        continue;
+      }
+      Point p0 = points[h.origin.index];
+      Point p1 = points[h.twin.origin.index];
+      double x = (p0.x + p1.x)/2;
+      double y = (p0.y + p1.y)/2;
+      dt.locate(x, y, location);
+      check(dcel, x, y, location);
+      ++counts[location.kind.ordinal()];
+    }
+    System.out.println(name + ": " + points.length + ", located: "
+        + Arrays.toString(Kind.values()) + " " + Arrays.toString(counts));
+
+    double[] queries = Benchmarks.queryPoints(points, 1 << 20, random);
+    int numQueries = queries.length/2;
+    for(int run=0; run<2; ++run) {
+      long bytes0 = Benchmarks.allocatedBytes();
+      long t0 = System.nanoTime();
+      for(int k=0; k<queries.length; k+=2) {
+        dt.locate(queries[k], queries[k+1], location);
+        Benchmarks.sink += location.kind.ordinal();
+      }
+      long t1 = System.nanoTime();
+      long bytes1 = Benchmarks.allocatedBytes();
+      if(run==1) {
+        System.out.println("  queries/s: " + (long)(numQueries*1e9/(t1-t0))
+            + ", bytes/query: " + (double)(bytes1-bytes0)/numQueries);
+        Util.myAssert(bytes1-bytes0 < numQueries);
+      }
+    }
+  }
+  /** Checks that location contains (x,y) . */
+  private static void check(Dcel dcel, double x, double y,
+      Location location) {
+    HalfEdge h = location.edge;
+    switch(location.kind) {
+    case VERTEX:
+      Util.myAssert(h.origin.index>=0);
+      Point p = dcel.getVertex(h.origin.index).getPoint();
+      Util.myAssert(p.x==x && p.y==y);
+      break;
+    case EDGE:
+      Util.myAssert(h.origin.index>=0 && h.twin.origin.index>=0);
+      Util.myAssert(dcel.orientation(h, x, y)==0);
+      Util.myAssert(dcel.orientation(h.next, x, y)<0);
+      Util.myAssert(dcel.orientation(h.twin.next, x, y)<0);
+      break;
+    case OUTSIDE:
+      // The outer face {-2,-1,iLargest} , or a face with a special vertex.
+      if(h.face==dcel.getHalfEdge(-2, -1).face) {
+        Util.myAssert(dcel.orientation(h.twin, x, y)>0);
+      }
+      else {
+        Util.myAssert(checkInFace(dcel, h, x, y));
+      }
+      break;
+    case FACE:
+      Util.myAssert(!checkInFace(dcel, h, x, y));
+      break;
+    }
+  }
+  /** Checks that (x,y) lies inside h.face; returns whether the face has a
+   *  special vertex. */
+  private static boolean checkInFace(Dcel dcel, HalfEdge h, double x,
+      double y) {
+    boolean outside = false;
+    for(int i=0; i<3; ++i) {
+      Util.myAssert(dcel.orientation(h, x, y)<0);
+      outside |= h.origin.index<0;
+      h = h.next;
+    }
+    return outside;
+  }
+}
@@ -0,0 +1,93 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Writes triangulations to a MeshFile and reads them back, for double and
+ * for integer coordinates, and checks the points and triangles; reports the
+ * time of writing the MeshFile and of Dcel.writePointsAndTriangles .
+ */
+public class MeshFileTest {
+
+  public static void main(String[] args) throws IOException {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    Random random = new Random(0L);
+    Path path = Files.createTempFile("mesh", ".bin");
+    try {
+      Point[] points = Points.randomPoints(numPoints, random);
+      test("random points", new DelaunayTriangulation(points).getDcel(),
+          path);
+      int[] xs = new int[numPoints];
+      int[] ys = new int[numPoints];
+      for(int i=0; i<numPoints; ++i) {
+        xs[i] = (int)(points[i].x * 1e6);
+        ys[i] = (int)(points[i].y * 1e6);
+      }
+      DelaunayTriangulation.Options options =
+          new DelaunayTriangulation.Options();
+      options.deduplicate = true;
+      test("integer points", new DelaunayTriangulation(
+          Coordinates.ofInts(xs, ys), options).getDcel(), path);
+      try {
+        Files.write(path, new byte[MeshFile.HEADER_SIZE]);
+        MeshFile.read(path);
+        Util.myAssert(false);
+      }
+      catch(IOException e) {
+      }
+    }
+    finally {
+      Files.delete(path);
+    }
+    System.out.println("OK");
+  }
+  private static void test(String name, Dcel dcel, Path path)
+      throws IOException {
+    long t0 = System.nanoTime();
+    MeshFile.write(dcel, path);
+    long t1 = System.nanoTime();
+    MeshFile mesh = MeshFile.read(path);
+    TreeSet<int[]> expected = new TreeSet<>(Triangle.triangleComparator);
+    for(Face f : dcel.getFaces()) {
+      int[] tri = f.calcTriangle();
+      if(tri[0]>=0 && tri[1]>=0 && tri[2]>=0) {
+        expected.add(tri);
+      }
+    }
+    Util.myAssert(mesh.getNumTriangles()==expected.size());
+    for(int t=0; t<mesh.getNumTriangles(); ++t) {
+      int[] tri = { mesh.vertex(t, 0), mesh.vertex(t, 1), mesh.vertex(t, 2) };
+      Triangle.toCanonical(tri);
+      Util.myAssert(expected.contains(tri));
+    }
+    Coordinates coordinates = mesh.toCoordinates();
+    Util.myAssert(mesh.getNumVertices()==coordinates.size());
+    for(Face f : dcel.getFaces()) {
+      Vertex v = f.edge.origin;
+      if(v.index>=0) {
+        Point p = v.getPoint();
+        Util.myAssert(mesh.x(v.index)==p.x && mesh.y(v.index)==p.y);
+        Util.myAssert(coordinates.x(v.index)==p.x
+            && coordinates.y(v.index)==p.y);
+      }
+    }
+    Util.myAssert(coordinates.isInteger()==mesh.isInteger());
+    long size = Files.size(path);
+
+    long t2 = System.nanoTime();
+    try(BufferedWriter bw = Files.newBufferedWriter(path)) {
+      dcel.writePointsAndTriangles(bw);
+    }
+    long t3 = System.nanoTime();
+    System.out.println(name + ": " + mesh.getNumTriangles()
+        + " triangles, MeshFile bytes: " + size + ", ms: " + (t1-t0)/1000000
+        + ", writePointsAndTriangles bytes: " + Files.size(path) + ", ms: "
+        + (t3-t2)/1000000);
+  }
+}
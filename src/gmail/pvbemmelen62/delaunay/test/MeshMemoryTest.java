@@ -0,0 +1,97 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Reports the retained heap per point of a Dcel, of an ArrayDcel, and of
+ * the history DAG for each Retention, and checks these: the ArrayDcel has
+ * the triangles of the Dcel, Dcel.compact() numbers the halfedges densely,
+ * and a retained DAG finds containing halfedges.
+ */
+public class MeshMemoryTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Point[] points = Points.randomPoints(numPoints, random);
+
+    long used0 = usedMemory();
+    DelaunayTriangulation dt = new DelaunayTriangulation(points);
+    long used1 = usedMemory();
+    ArrayDelaunayTriangulation adt = new ArrayDelaunayTriangulation(points);
+    long used2 = usedMemory();
+
+    TreeSet<int[]> tris = new TreeSet<>(Triangle.triangleComparator);
+    for(Face f : dt.getDcel().getFaces()) {
+      tris.add(f.calcTriangle());
+    }
+    ArrayDcel arrayDcel = adt.getArrayDcel();
+    Util.myAssert(arrayDcel.getNumTriangles()==tris.size());
+    for(int t=0; t<arrayDcel.getNumTriangles(); ++t) {
+      Util.myAssert(tris.contains(arrayDcel.calcTriangle(t)));
+    }
+    System.out.println("numPoints: " + numPoints);
+    System.out.println("Dcel      bytes/point: " + (used1-used0)/numPoints);
+    System.out.println("ArrayDcel bytes/point: " + (used2-used1)/numPoints);
+
+    // Retired halfedges are reused, so there are few more than in use.
+    Dcel dcel = dt.getDcel();
+    int numInUse = 6*numPoints;
+    System.out.println("Dcel halfedges/point: "
+        + (double)dcel.getNumHalfEdges()/numPoints + ", in use: 6");
+    int numFaces = dcel.compact();
+    Util.myAssert(numFaces==2*numPoints);
+    Util.myAssert(dcel.getNumHalfEdges()==numInUse);
+    for(Face f : dcel.getFaces()) {
+      Util.myAssert(f.edge.index==3*f.index);
+      Util.myAssert(f.edge.next.index==3*f.index+1);
+    }
+    dcel.validate();
+
+    for(Retention retention : Retention.values()) {
+      Options options = new Options();
+      options.retention = retention;
+      long used3 = usedMemory();
+      DelaunayTriangulation dtRetained = new DelaunayTriangulation(points,
+          options);
+      long used4 = usedMemory();
+      PointLocationStructure pls = dtRetained.getPointLocationStructure();
+      System.out.println(retention + " bytes/point: " + (used4-used3)/numPoints
+          + ", nodes: " + (pls==null ? 0 : pls.getNumNodes()));
+      if(pls!=null) {
+        checkContaining(dtRetained, points, random);
+      }
+    }
+  }
+  /** Checks that findContainingHalfEdge finds a face containing each of
+   *  the random query points. */
+  private static void checkContaining(DelaunayTriangulation dt,
+      Point[] points, Random random) {
+    Dcel dcel = dt.getDcel();
+    Descent descent = new Descent();
+    double[] queries = Benchmarks.queryPoints(points, points.length, random);
+    for(int k=0; k<queries.length; k+=2) {
+      double x = queries[k];
+      double y = queries[k+1];
+      HalfEdge h = dt.findContainingHalfEdge(x, y, descent);
+      for(int i=0; i<3; ++i) {
+        Util.myAssert(dcel.orientation(h, x, y) <= 0);
+        h = h.next;
+      }
+    }
+  }
+  private static long usedMemory() {
+    Runtime rt = Runtime.getRuntime();
+    for(int i=0; i<4; ++i) {
+      System.gc();
+    }
+    return rt.totalMemory() - rt.freeMemory();
+  }
+}
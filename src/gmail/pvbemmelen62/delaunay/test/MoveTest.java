@@ -0,0 +1,146 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Moves points with DelaunayTriangulation.move, in batches of small steps,
+ * which mostly stay inside the star of the point, and of large jumps, which
+ * mostly do not, and checks that this gives the triangles of triangulating
+ * the moved points at once; reports the time per move for each LocationMode.
+ */
+public class MoveTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Long seed = 0L;
+    System.out.println("points: " + numPoints);
+    for(LocationMode mode : LocationMode.values()) {
+      Random random = new Random(seed);
+      Point[] points = Points.randomPoints(numPoints, random);
+      MyRect rect = MyRect.fromPoints(points);
+      double step = rect.width()/Math.sqrt(numPoints)/4;
+      Options options = new Options();
+      options.locationMode = mode;
+      DelaunayTriangulation dt = new DelaunayTriangulation(points, options);
+      int batchSize = numPoints/10;
+      int[] indices = new int[batchSize];
+      double[] xs = new double[batchSize];
+      double[] ys = new double[batchSize];
+      long nsSmall = 0;
+      long nsLarge = 0;
+      for(int batch=0; batch<10; ++batch) {
+        boolean large = batch%5==4;
+        int[] permutation = Util.permutation(random, 0, numPoints-1);
+        for(int k=0; k<batchSize; ++k) {
+          int i = permutation[k];
+          indices[k] = i;
+          if(large) {
+            xs[k] = rect.minX + rect.width()*random.nextDouble();
+            ys[k] = rect.minY + rect.height()*random.nextDouble();
+          }
+          else {
+            xs[k] = points[i].x + step*(2*random.nextDouble() - 1);
+            ys[k] = points[i].y + step*(2*random.nextDouble() - 1);
+          }
+          points[i] = new Point(xs[k], ys[k]);
+        }
+        long t0 = System.nanoTime();
+        dt.move(indices, xs, ys);
+        long t1 = System.nanoTime();
+        if(large) {
+          nsLarge += t1-t0;
+        }
+        else {
+          nsSmall += t1-t0;
+        }
+      }
+      check(dt, points);
+      // A point moves onto a point that moves away later in the batch.
+      Point p0 = new Point(points[1].x, points[1].y);
+      Point p1 = new Point(points[1].x + step/2, points[1].y);
+      dt.move(new int[] { 0, 1 }, new double[] { p0.x, p1.x },
+          new double[] { p0.y, p1.y });
+      points[0] = p0;
+      points[1] = p1;
+      // A chain: each point moves onto the old position of the next.
+      int[] chain = { 5, 6, 7, 8 };
+      double[] chainXs = new double[chain.length];
+      double[] chainYs = new double[chain.length];
+      for(int k=0; k<chain.length; ++k) {
+        Point p = k+1<chain.length ? points[chain[k+1]]
+            : new Point(points[chain[k]].x + step/2, points[chain[k]].y);
+        chainXs[k] = p.x;
+        chainYs[k] = p.y;
+      }
+      dt.move(chain, chainXs, chainYs);
+      for(int k=0; k<chain.length; ++k) {
+        points[chain[k]] = new Point(chainXs[k], chainYs[k]);
+      }
+      check(dt, points);
+      // A swap cannot be done one move at a time; the other moves are done.
+      Point p9 = new Point(points[9].x + step/2, points[9].y);
+      try {
+        dt.move(new int[] { 3, 4, 9 },
+            new double[] { points[4].x, points[3].x, p9.x },
+            new double[] { points[4].y, points[3].y, p9.y });
+        Util.myAssert(false);
+      }
+      catch(CoincidentPointException e) {
+      }
+      points[9] = p9;
+      // The largest point moves, and another point moves above it.
+      int iLargest = DelaunayTriangulation.findLargestPoint(points);
+      points[iLargest] = new Point(points[iLargest].x,
+          points[iLargest].y - step);
+      dt.move(iLargest, points[iLargest].x, points[iLargest].y);
+      points[2] = new Point(rect.minX, rect.maxY + step);
+      dt.move(2, points[2].x, points[2].y);
+      check(dt, points);
+      try {
+        dt.move(3, points[4].x, points[4].y);
+        Util.myAssert(false);
+      }
+      catch(CoincidentPointException e) {
+        Util.myAssert(e.getPointIndex()==4);
+      }
+      // Onto the largest point, which the walk does not find.
+      iLargest = DelaunayTriangulation.findLargestPoint(points);
+      try {
+        dt.move(3, points[iLargest].x, points[iLargest].y);
+        Util.myAssert(false);
+      }
+      catch(CoincidentPointException e) {
+        Util.myAssert(e.getPointIndex()==iLargest);
+      }
+      Util.myAssert(dt.getDcel().getVertex(3)!=null);
+      check(dt, points);
+      System.out.println("  " + mode + " ns/move, small steps: "
+          + nsSmall/(8*batchSize) + ", large jumps: "
+          + nsLarge/(2*batchSize));
+    }
+    System.out.println("OK");
+  }
+  /** Checks that dt has the triangles of triangulating points at once. */
+  private static void check(DelaunayTriangulation dt, Point[] points) {
+    TreeSet<int[]> expected = new TreeSet<>(Triangle.triangleComparator);
+    for(Face f : new DelaunayTriangulation(points).getDcel().getFaces()) {
+      expected.add(f.calcTriangle());
+    }
+    Dcel dcel = dt.getDcel();
+    dcel.validate();
+    TreeSet<Face> faces = dcel.getFaces();
+    Util.myAssert(faces.size()==expected.size());
+    for(Face f : faces) {
+      Util.myAssert(expected.contains(f.calcTriangle()));
+    }
+    DelaunayHierarchy hierarchy = dt.getHierarchy();
+    for(int k=1; hierarchy!=null && k<hierarchy.getNumLevels(); ++k) {
+      hierarchy.getLevel(k).validate();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Locator.*;
+
+/**
+ * Checks that ParallelLocator finds, for random queries in and around the
+ * points, a face that contains the query, the same as Locator for queries
+ * inside a face, and -1 for queries outside the convex hull; reports the
+ * queries per second of both.
+ */
+public class ParallelLocatorTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    int numQueries = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Point[] points = Points.randomPoints(numPoints, random);
+    DelaunayTriangulation dt = new DelaunayTriangulation(points);
+    Locator locator = dt.getLocator();
+    Dcel dcel = dt.getDcel();
+    Face[] faces = new Face[2*numPoints];
+    for(Face f : dcel.getFaces()) {
+      faces[f.index] = f;
+    }
+    MyRect rect = MyRect.fromPoints(points).scale(1.25);
+    double[] xs = new double[numQueries];
+    double[] ys = new double[numQueries];
+    for(int k=0; k<numQueries; ++k) {
+      xs[k] = rect.minX + rect.width()*random.nextDouble();
+      ys[k] = rect.minY + rect.height()*random.nextDouble();
+    }
+
+    long t0 = System.nanoTime();
+    int[] expected = new int[numQueries];
+    Kind[] kinds = new Kind[numQueries];
+    Location location = new Location();
+    for(int k=0; k<numQueries; ++k) {
+      expected[k] = locator.locate(xs[k], ys[k], location).face();
+      kinds[k] = location.kind;
+    }
+    long t1 = System.nanoTime();
+    int[] found = new ParallelLocator(locator).locate(xs, ys);
+    long t2 = System.nanoTime();
+
+    int numOutside = 0;
+    for(int k=0; k<numQueries; ++k) {
+      if(kinds[k]==Kind.OUTSIDE) {
+        Util.myAssert(found[k]==-1);
+        ++numOutside;
+        continue;
+      }
+      if(kinds[k]==Kind.FACE) {
+        Util.myAssert(found[k]==expected[k]);
+      }
+      HalfEdge h = faces[found[k]].edge;
+      for(int i=0; i<3; ++i) {
+        Util.myAssert(h.origin.index>=0);
+        Util.myAssert(dcel.orientation(h, xs[k], ys[k]) <= 0);
+        h = h.next;
+      }
+    }
+    System.out.println("points: " + numPoints + ", queries: " + numQueries
+        + ", outside: " + numOutside);
+    System.out.println("  Locator         queries/s: "
+        + (long)(numQueries*1e9/(t1-t0)));
+    System.out.println("  ParallelLocator queries/s: "
+        + (long)(numQueries*1e9/(t2-t1)));
+    System.out.println("OK");
+  }
+}
@@ -0,0 +1,67 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Checks that ParallelTriangulator creates the same triangles as
+ * DivideAndConquerTriangulator, for random and for grid points, and reports
+ * the speedup.
+ */
+public class ParallelTriangulatorTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+    Random random = new Random(0L);
+    System.out.println("processors: "
+        + Runtime.getRuntime().availableProcessors());
+    test("random points", Points.randomPoints(numPoints, random));
+    test("grid points", Points.gridPoints(numPoints, random));
+    // Small inputs, and thresholds that split down to 2 or 3 points.
+    for(int n=1; n<40; ++n) {
+      Point[] points = Points.randomPoints(n, random);
+      Dcel dcel0 = new DivideAndConquerTriangulator().triangulate(points);
+      Dcel dcel1 = new ParallelTriangulator(
+          ForkJoinPool.commonPool(), 3)
+          .triangulate(points);
+      assertEqualFaces(dcel0, dcel1);
+    }
+    System.out.println("OK");
+  }
+  private static void test(String name, Point[] points) {
+    System.out.println(name + ": " + points.length);
+    Triangulator sequential = new DivideAndConquerTriangulator();
+    Triangulator parallel = new ParallelTriangulator();
+    Dcel dcel0 = null;
+    Dcel dcel1 = null;
+    long ms0 = Long.MAX_VALUE;
+    long ms1 = Long.MAX_VALUE;
+    // Best of a few runs, the first ones warm up.
+    for(int run=0; run<3; ++run) {
+      long t0 = System.nanoTime();
+      dcel0 = sequential.triangulate(points);
+      long t1 = System.nanoTime();
+      dcel1 = parallel.triangulate(points);
+      long t2 = System.nanoTime();
+      ms0 = Math.min(ms0, (t1-t0)/1000000);
+      ms1 = Math.min(ms1, (t2-t1)/1000000);
+    }
+    System.out.println("  sequential ms: " + ms0);
+    System.out.println("  parallel ms: " + ms1);
+    System.out.println("  speedup: " + (double)ms0/Math.max(ms1, 1));
+    assertEqualFaces(dcel0, dcel1);
+  }
+  private static void assertEqualFaces(Dcel dcel0, Dcel dcel1) {
+    TreeSet<Face> faces0 = dcel0.getFaces();
+    TreeSet<Face> faces1 = dcel1.getFaces();
+    Util.myAssert(faces0.size()==faces1.size());
+    Iterator<Face> iter = faces0.iterator();
+    for(Face f : faces1) {
+      Util.myAssert(f.compareTo(iter.next())==0);
+    }
+  }
+}
@@ -5,26 +5,62 @@ import java.util.*;
 import gmail.pvbemmelen62.delaunay.*;
 import gmail.pvbemmelen62.delaunay.PointLocationStructure.*;
 
+/**
+ * Builds a PointLocationStructure without flips, for random points and for
+ * grid points, of which many lie on the boundary of two leaf nodes; checks
+ * that findContainingLeafNodes with and without a Descent agree, and that
+ * a reset PointLocationStructure builds the same nodes again.
+ */
 public class PointLocationStructureTest {
 
   public static void main(String[] args) {
-    int numPoints = 20;
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
     Long seed = 0L;
     Random random = new Random(seed);
-    Point[] points = Points.randomPoints(numPoints, random);
+    test(Points.randomPoints(numPoints, random), random);
+    test(Points.gridPoints(numPoints, random), random);
+    System.out.println("OK");
+  }
+  private static void test(Point[] points, Random random) {
     int iLargest = DelaunayTriangulation.findLargestPoint(points);
-//  Util.swap((Object[])points, 0, iLargest);
-    PointLocationStructure pls = new PointLocationStructure(points, iLargest);
-    int[] permutation = Util.permutation(random, 1, numPoints-1);
-    for(int i=0; i<numPoints-1; ++i) {
-      int pointIndex = permutation[i];
-      Node[] nodes = pls.findContainingLeafNodes(points[pointIndex]);
+    Coordinates coords = Coordinates.of(points);
+    PointLocationStructure pls = new PointLocationStructure(coords, iLargest);
+    int[] permutation = Util.permutation(random, 0, points.length-1);
+    int numOnEdge = build(pls, points, permutation, iLargest);
+    int numNodes = pls.getNumNodes();
+    pls.reset(coords, iLargest);
+    Util.myAssert(pls.getNumNodes()==1);
+    Util.myAssert(build(pls, points, permutation, iLargest)==numOnEdge);
+    Util.myAssert(pls.getNumNodes()==numNodes);
+    System.out.println("points: " + points.length + ", on edge: "
+        + numOnEdge + ", nodes: " + numNodes);
+  }
+  /** Inserts the points in the order of permutation; returns the number of
+   * points that were on an edge.
+   */
+  private static int build(PointLocationStructure pls, Point[] points,
+      int[] permutation, int iLargest) {
+    Descent descent = new Descent();
+    int numOnEdge = 0;
+    for(int pointIndex : permutation) {
+      if(pointIndex==iLargest) {
+        continue;
+      }
+      Point p = points[pointIndex];
+      int[] nodes = pls.findContainingLeafNodes(p);
+      int numNodes = pls.findContainingLeafNodes(p.x, p.y, descent);
+      Util.myAssert(numNodes==nodes.length);
+      for(int k=0; k<numNodes; ++k) {
+        Util.myAssert(descent.leaves[k]==nodes[k]);
+      }
       if(nodes.length==1) {
         pls.splitContainingLeafNode(nodes[0], pointIndex);
       }
       else {
         pls.splitContainingLeafNodes(nodes[0], nodes[1], pointIndex);
+        ++numOnEdge;
       }
     }
+    return numOnEdge;
   }
 }
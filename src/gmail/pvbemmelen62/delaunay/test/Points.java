@@ -6,6 +6,22 @@ import gmail.pvbemmelen62.delaunay.*;
 
 public class Points {
 
+  /** Point sets that the tests and benchmarks run on. */
+  public enum Distribution {
+    UNIFORM, CLUSTERED, GRID, CIRCLE, NEAR_COLLINEAR;
+
+    public Point[] create(int numPoints, Random random) {
+      switch(this) {
+      case UNIFORM: return randomPoints(numPoints, random);
+      case CLUSTERED: return clusteredPoints(numPoints, random);
+      case GRID: return gridPoints(numPoints, random);
+      case CIRCLE: return circlePoints(numPoints, random);
+      case NEAR_COLLINEAR: return nearCollinearPoints(numPoints, random);
+      default: throw new IllegalStateException("" + this);
+      }
+    }
+  }
+
   public static Point[] randomPoints(int numPoints, Random random) {
     Point[] points = new Point[numPoints];
     for(int i=0; i<numPoints; ++i) {
@@ -13,4 +29,45 @@ public class Points {
     }
     return points;
   }
+  /** Points on a square grid with spacing 1, in random order. */
+  public static Point[] gridPoints(int numPoints, Random random) {
+    int side = (int)Math.ceil(Math.sqrt(numPoints));
+    Point[] points = new Point[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      points[i] = new Point(i % side, i / side);
+    }
+    Collections.shuffle(Arrays.asList(points), random);
+    return points;
+  }
+  /** Points in numPoints/1000+1 Gaussian clusters with standard deviation
+   *  0.01, around centers in the unit square. */
+  public static Point[] clusteredPoints(int numPoints, Random random) {
+    Point[] centers = randomPoints(numPoints/1000 + 1, random);
+    Point[] points = new Point[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      Point c = centers[random.nextInt(centers.length)];
+      points[i] = new Point(c.x + 0.01*random.nextGaussian(),
+          c.y + 0.01*random.nextGaussian());
+    }
+    return points;
+  }
+  /** Points on the unit circle, rounded to doubles, so all of them lie on
+   *  the convex hull and many incircle tests are near zero. */
+  public static Point[] circlePoints(int numPoints, Random random) {
+    Point[] points = new Point[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      double a = 2 * Math.PI * random.nextDouble();
+      points[i] = new Point(Math.cos(a), Math.sin(a));
+    }
+    return points;
+  }
+  /** Points less than 1e-9 away from the diagonal of the unit square. */
+  public static Point[] nearCollinearPoints(int numPoints, Random random) {
+    Point[] points = new Point[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      double x = random.nextDouble();
+      points[i] = new Point(x, x + 1e-9*(random.nextDouble()-0.5));
+    }
+    return points;
+  }
 }
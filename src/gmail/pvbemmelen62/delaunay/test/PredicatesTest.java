@@ -0,0 +1,169 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.math.*;
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+
+/**
+ * Checks Predicates against exact BigDecimal evaluation, for random and for
+ * nearly degenerate input, checks that the exact evaluations do not
+ * allocate, and reports the time per call compared to the determinants of
+ * Circle.
+ */
+public class PredicatesTest {
+
+  public static void main(String[] args) {
+    Random random = new Random(0L);
+    // Points on or within a few ulps of the line y==x, as in Shewchuk's
+    // paper; floating point evaluation gets many of these wrong.
+    double ulp = Math.ulp(0.5);
+    int numWrongFloat = 0;
+    for(int i=0; i<64; ++i) {
+      for(int j=0; j<64; ++j) {
+        double ax = 0.5 + i*ulp;
+        double ay = 0.5 + j*ulp;
+        int exact = orient2dExact(ax, ay, 12, 12, 24, 24);
+        Util.myAssert(Predicates.orient2d(ax, ay, 12, 12, 24, 24)==exact);
+        double det = (12-ax)*(24-ay) - (12-ay)*(24-ax);
+        if(Math.signum(det)!=exact) {
+          ++numWrongFloat;
+        }
+      }
+    }
+    System.out.println("orient2d near line, wrong in floating point: "
+        + numWrongFloat + " of 4096");
+    // Cocircular points of a grid, moved by a few ulps.
+    numWrongFloat = 0;
+    for(int k=0; k<10000; ++k) {
+      double s = 1 + random.nextInt(1000);
+      double x0 = random.nextInt(1000) / 7.0;
+      double y0 = random.nextInt(1000) / 7.0;
+      double dx = x0 + random.nextInt(3) * Math.ulp(x0);
+      int exact = incircleExact(x0, y0, x0+s, y0, x0+s, y0+s, dx, y0+s);
+      int pred = Predicates.incircle(x0, y0, x0+s, y0, x0+s, y0+s, dx, y0+s);
+      Util.myAssert(pred==exact);
+    }
+    // Points on a circle, translated so that coordinate differences are
+    // not exact.
+    for(int k=1; k<10000; ++k) {
+      double o = k / 3.0;
+      double dx = 15+o + random.nextInt(5) * Math.ulp(15+o);
+      double dy = 20+o - random.nextInt(5) * Math.ulp(20+o);
+      int exact = incircleExact(7+o, 24+o, 24+o, 7+o, -24+o, 7+o, dx, dy);
+      int pred = Predicates.incircle(7+o, 24+o, 24+o, 7+o, -24+o, 7+o,
+          dx, dy);
+      Util.myAssert(pred==exact);
+    }
+    for(int k=0; k<100000; ++k) {
+      double[] c = new double[8];
+      for(int i=0; i<8; ++i) {
+        c[i] = random.nextDouble();
+      }
+      Util.myAssert(Predicates.orient2d(c[0], c[1], c[2], c[3], c[4], c[5])
+          ==orient2dExact(c[0], c[1], c[2], c[3], c[4], c[5]));
+      Util.myAssert(Predicates.incircle(c[0], c[1], c[2], c[3], c[4], c[5],
+          c[6], c[7])==incircleExact(c[0], c[1], c[2], c[3], c[4], c[5],
+          c[6], c[7]));
+    }
+
+    // Exact evaluations: of differences, as for cocircular grid points, and
+    // of coordinates, for differences that are not exact.
+    for(int run=0; run<2; ++run) {
+      long bytes0 = Benchmarks.allocatedBytes();
+      int sum = 0;
+      for(int k=0; k<100000; ++k) {
+        double o = (k%1000) / 3.0;
+        sum += Predicates.incircle(k, 0, k+1, 0, k+1, 1, k, 1);
+        sum += Predicates.incircle(7+o, 24+o, 24+o, 7+o, -24+o, 7+o,
+            15+o, 20+o);
+        sum += Predicates.orient2d(0.5+o, 0.5+o, 12+o, 12+o, 24+o, 24+o);
+      }
+      long bytes1 = Benchmarks.allocatedBytes();
+      if(run==1) {
+        System.out.println("exact evaluations, bytes allocated: "
+            + (bytes1-bytes0) + " (" + sum + ")");
+        // Allowing for allocatedBytes itself.
+        Util.myAssert(bytes1-bytes0 < 1000);
+      }
+    }
+
+    Point[] points = Points.randomPoints(1000, random);
+    int numCalls = 4000000;
+    for(int run=0; run<2; ++run) {
+      long t0 = System.nanoTime();
+      int sum = 0;
+      for(int k=0; k<numCalls; ++k) {
+        Point p0 = points[k % 997];
+        Point p1 = points[k % 991];
+        Point p2 = points[k % 983];
+        Point p3 = points[k % 977];
+        sum += Predicates.incircle(p0, p1, p2, p3);
+      }
+      long t1 = System.nanoTime();
+      for(int k=0; k<numCalls; ++k) {
+        Point p0 = points[k % 997];
+        Point p1 = points[k % 991];
+        Point p2 = points[k % 983];
+        Point p3 = points[k % 977];
+        sum += (int)Math.signum(Circle.determinant4x4(new double[][] {
+          { p0.x, p0.y, p0.x*p0.x+p0.y*p0.y, 1 },
+          { p1.x, p1.y, p1.x*p1.x+p1.y*p1.y, 1 },
+          { p2.x, p2.y, p2.x*p2.x+p2.y*p2.y, 1 },
+          { p3.x, p3.y, p3.x*p3.x+p3.y*p3.y, 1 }
+        }));
+      }
+      long t2 = System.nanoTime();
+      if(run==1) {
+        System.out.println("incircle ns/call: Predicates "
+            + (t1-t0)/numCalls + ", Circle.determinant4x4 "
+            + (t2-t1)/numCalls + " (" + sum + ")");
+      }
+    }
+    System.out.println("OK");
+  }
+  private static BigDecimal exact(double d) {
+    return new BigDecimal(d);
+  }
+  private static int orient2dExact(double ax, double ay, double bx,
+      double by, double cx, double cy) {
+    BigDecimal[] m = {
+      exact(bx).subtract(exact(ax)), exact(by).subtract(exact(ay)),
+      exact(cx).subtract(exact(ax)), exact(cy).subtract(exact(ay))
+    };
+    return m[0].multiply(m[3]).subtract(m[1].multiply(m[2])).signum();
+  }
+  private static int incircleExact(double ax, double ay, double bx,
+      double by, double cx, double cy, double dx, double dy) {
+    // Determinant of rows {x, y, x*x+y*y, 1} , expanded along column 1 .
+    double[][] p = { {ax, ay}, {bx, by}, {cx, cy}, {dx, dy} };
+    BigDecimal[][] m = new BigDecimal[4][3];
+    for(int i=0; i<4; ++i) {
+      m[i][0] = exact(p[i][0]);
+      m[i][1] = exact(p[i][1]);
+      m[i][2] = m[i][0].multiply(m[i][0]).add(m[i][1].multiply(m[i][1]));
+    }
+    BigDecimal det = BigDecimal.ZERO;
+    for(int i=0; i<4; ++i) {
+      BigDecimal[][] minor = new BigDecimal[3][];
+      for(int r=0, k=0; r<4; ++r) {
+        if(r!=i) {
+          minor[k++] = m[r];
+        }
+      }
+      BigDecimal d = det3(minor);
+      // cofactor sign of element (i,3) is (-1)^(i+3)
+      det = (i%2==1) ? det.add(d) : det.subtract(d);
+    }
+    return det.signum();
+  }
+  private static BigDecimal det3(BigDecimal[][] m) {
+    return m[0][0].multiply(m[1][1].multiply(m[2][2])
+            .subtract(m[2][1].multiply(m[1][2])))
+        .subtract(m[0][1].multiply(m[1][0].multiply(m[2][2])
+            .subtract(m[2][0].multiply(m[1][2]))))
+        .add(m[0][2].multiply(m[1][0].multiply(m[2][1])
+            .subtract(m[2][0].multiply(m[1][1]))));
+  }
+}
@@ -0,0 +1,135 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Removes points, among which the largest ones, with
+ * DelaunayTriangulation.remove, and checks that this gives the triangles of
+ * triangulating the remaining points at once; reports the time per remove
+ * for each LocationMode. Does the same for a point of high degree: the
+ * center of points on a circle.
+ */
+public class RemoveTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Point[] points = Points.randomPoints(numPoints, random);
+    // Remove half the points, in random order, and the ten largest first.
+    Integer[] byLargest = new Integer[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      byLargest[i] = i;
+    }
+    Arrays.sort(byLargest, (i, j) -> DelaunayTriangulation.yThenXComparator
+        .compare(points[j], points[i]));
+    int[] removed = new int[numPoints/2];
+    boolean[] isRemoved = new boolean[numPoints];
+    int[] permutation = Util.permutation(random, 0, numPoints-1);
+    int numRemoved = 0;
+    for(int k=0; numRemoved<removed.length; ++k) {
+      int i = k<10 ? byLargest[k] : permutation[k-10];
+      if(!isRemoved[i]) {
+        isRemoved[i] = true;
+        removed[numRemoved++] = i;
+      }
+    }
+    // Expected: the remaining points, in their order, triangulated at once.
+    ArrayList<Point> remaining = new ArrayList<>();
+    int[] newIndex = new int[numPoints];
+    for(int i=0; i<numPoints; ++i) {
+      newIndex[i] = isRemoved[i] ? -1 : remaining.size();
+      if(!isRemoved[i]) {
+        remaining.add(points[i]);
+      }
+    }
+    TreeSet<int[]> expected = new TreeSet<>(Triangle.triangleComparator);
+    for(Face f : new DelaunayTriangulation(remaining.toArray(new Point[0]))
+        .getDcel().getFaces()) {
+      expected.add(f.calcTriangle());
+    }
+
+    System.out.println("points: " + numPoints + ", removed: "
+        + removed.length);
+    for(LocationMode mode : LocationMode.values()) {
+      Options options = new Options();
+      options.locationMode = mode;
+      DelaunayTriangulation dt = new DelaunayTriangulation(points, options);
+      long t0 = System.nanoTime();
+      for(int i : removed) {
+        dt.remove(i);
+      }
+      long t1 = System.nanoTime();
+      Dcel dcel = dt.getDcel();
+      dcel.validate();
+      TreeSet<Face> faces = dcel.getFaces();
+      Util.myAssert(faces.size()==expected.size());
+      for(Face f : faces) {
+        int[] tri = f.calcTriangle();
+        for(int j=0; j<3; ++j) {
+          tri[j] = tri[j]<0 ? tri[j] : newIndex[tri[j]];
+        }
+        Triangle.toCanonical(tri);
+        Util.myAssert(expected.contains(tri));
+      }
+      DelaunayHierarchy hierarchy = dt.getHierarchy();
+      for(int k=1; hierarchy!=null && k<hierarchy.getNumLevels(); ++k) {
+        hierarchy.getLevel(k).validate();
+      }
+      try {
+        dt.remove(removed[0]);
+        Util.myAssert(false);
+      }
+      catch(IllegalArgumentException e) {
+      }
+      System.out.println("  " + mode + " ns/remove: "
+          + (t1-t0)/removed.length);
+    }
+    removeCenter(random, 4000);
+    System.out.println("OK");
+  }
+  /** Removes point 0, at the center of numPoints points on a circle. */
+  private static void removeCenter(Random random, int numPoints) {
+    Point[] points = new Point[numPoints+1];
+    points[0] = new Point(0, 0);
+    for(int i=1; i<=numPoints; ++i) {
+      double angle = 2*Math.PI*random.nextDouble();
+      points[i] = new Point(Math.cos(angle), Math.sin(angle));
+    }
+    TreeSet<int[]> expected = new TreeSet<>(Triangle.triangleComparator);
+    for(Face f : new DelaunayTriangulation(
+        Arrays.copyOfRange(points, 1, points.length)).getDcel().getFaces()) {
+      expected.add(f.calcTriangle());
+    }
+    DelaunayTriangulation dt = new DelaunayTriangulation(points);
+    Dcel dcel = dt.getDcel();
+    HalfEdge h0 = dcel.getVertex(0).edge;
+    HalfEdge h = h0;
+    int degree = 0;
+    do {
+      ++degree;
+      h = h.prev.twin;
+    }
+    while(h!=h0);
+    long t0 = System.nanoTime();
+    dt.remove(0);
+    long t1 = System.nanoTime();
+    dcel.validate();
+    TreeSet<Face> faces = dcel.getFaces();
+    Util.myAssert(faces.size()==expected.size());
+    for(Face f : faces) {
+      int[] tri = f.calcTriangle();
+      for(int j=0; j<3; ++j) {
+        tri[j] = tri[j]<0 ? tri[j] : tri[j]-1;
+      }
+      Triangle.toCanonical(tri);
+      Util.myAssert(expected.contains(tri));
+    }
+    System.out.println("  degree " + degree + " ns/remove: " + (t1-t0));
+  }
+}
@@ -0,0 +1,102 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Compares the Triangulator implementations: checks that they create the same
+ * triangles for random points, and reports the time taken by each, for
+ * random points and for sorted grid points. Checks that divide and conquer
+ * handles points that all lie on one line, and rejects equal points.
+ */
+public class TriangulatorTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Triangulator[] triangulators = {
+        new IncrementalTriangulator(LocationMode.HISTORY_DAG),
+        new IncrementalTriangulator(LocationMode.WALK),
+        new IncrementalTriangulator(LocationMode.HIERARCHY),
+        new DivideAndConquerTriangulator()
+    };
+    String[] names = { "incremental, history DAG", "incremental, walk",
+        "incremental, hierarchy", "divide and conquer" };
+
+    Point[] points = Points.randomPoints(numPoints, random);
+    System.out.println("random points: " + numPoints);
+    TreeSet<Face> faces0 = null;
+    for(int i=0; i<triangulators.length; ++i) {
+      long t0 = System.nanoTime();
+      Dcel dcel = triangulators[i].triangulate(points);
+      long t1 = System.nanoTime();
+      System.out.println("  " + names[i] + " ms: " + (t1-t0)/1000000);
+      dcel.validate();
+      TreeSet<Face> faces = dcel.getFaces();
+      if(faces0==null) {
+        faces0 = faces;
+        continue;
+      }
+      Util.myAssert(faces.size()==faces0.size());
+      Iterator<Face> iter = faces0.iterator();
+      for(Face f : faces) {
+        Util.myAssert(f.compareTo(iter.next())==0);
+      }
+    }
+
+    // Sorted grid, with many points on edges.
+    points = Points.gridPoints(numPoints, random);
+    Arrays.sort(points);
+    System.out.println("sorted grid points: " + numPoints);
+    for(int i=0; i<triangulators.length; ++i) {
+      long t0 = System.nanoTime();
+      Dcel dcel = triangulators[i].triangulate(points);
+      long t1 = System.nanoTime();
+      System.out.println("  " + names[i] + " ms: " + (t1-t0)/1000000);
+      Util.myAssert(dcel.getFaces().size()==2*numPoints);
+      dcel.validate();
+    }
+
+    Triangulator[] divideAndConquer = { new DivideAndConquerTriangulator(),
+        new ParallelTriangulator(ForkJoinPool.commonPool(), 3) };
+    for(int n : new int[] { 2, 3, 5, 100 }) {
+      for(int[] direction : new int[][] { {1,1}, {1,0}, {0,1}, {2,-1} }) {
+        Point[] line = new Point[n];
+        for(int i=0; i<n; ++i) {
+          line[i] = new Point(direction[0]*i, direction[1]*i);
+        }
+        Collections.shuffle(Arrays.asList(line), random);
+        TreeSet<Face> expected = triangulators[0].triangulate(line)
+            .getFaces();
+        for(Triangulator triangulator : divideAndConquer) {
+          Dcel dcel = triangulator.triangulate(line);
+          dcel.validate();
+          TreeSet<Face> faces = dcel.getFaces();
+          Util.myAssert(faces.size()==expected.size());
+          Iterator<Face> iter = expected.iterator();
+          for(Face f : faces) {
+            Util.myAssert(f.compareTo(iter.next())==0);
+          }
+        }
+      }
+    }
+    System.out.println("collinear points: OK");
+    points = Points.randomPoints(100, random);
+    points[57] = new Point(points[12]);
+    for(Triangulator triangulator : divideAndConquer) {
+      try {
+        triangulator.triangulate(points);
+        Util.myAssert(false);
+      }
+      catch(IllegalArgumentException e) {
+      }
+    }
+    System.out.println("equal points: OK");
+  }
+}
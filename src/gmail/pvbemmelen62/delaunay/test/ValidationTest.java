@@ -0,0 +1,70 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Triangulates with each Validation level and reports the time taken, and
+ * checks that Dcel.validate() detects a non-Delaunay edge and a broken link.
+ */
+public class ValidationTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+    Random random = new Random(0L);
+    Point[] points = Points.randomPoints(numPoints, random);
+    System.out.println("random points: " + numPoints);
+    for(LocationMode mode : LocationMode.values()) {
+      for(Validation validation : Validation.values()) {
+        long t0 = System.nanoTime();
+        new DelaunayTriangulation(points, mode, validation);
+        long t1 = System.nanoTime();
+        System.out.println("  " + mode + ", " + validation + " ms: "
+            + (t1-t0)/1000000);
+      }
+    }
+
+    Dcel dcel = new DelaunayTriangulation(points, LocationMode.WALK)
+        .getDcel();
+    dcel.validate();
+    // Flipping an edge between two real triangles makes it illegal.
+    HalfEdge h = null;
+    for(Face f : dcel.getFaces()) {
+      HalfEdge e = f.edge;
+      if(e.origin.index>=0 && e.twin.origin.index>=0
+          && e.next.origin.index>=0 && e.twin.prev.origin.index>=0
+          && e.swapIsConvex()) {
+        h = e;
+        break;
+      }
+    }
+    // h is retired by the flip, and may be reused by the next one.
+    int i0 = h.origin.index;
+    int i1 = h.twin.origin.index;
+    HalfEdge hNew = h.flip();
+    assertFails(dcel, "flipped edge");
+    hNew.flip();
+    dcel.validate();
+    h = dcel.getHalfEdge(i0, i1);
+    HalfEdge twin = h.twin;
+    h.twin = h;
+    assertFails(dcel, "broken twin");
+    h.twin = twin;
+    dcel.validate();
+    System.out.println("OK");
+  }
+  private static void assertFails(Dcel dcel, String what) {
+    try {
+      dcel.validate();
+    }
+    catch(AssertionError e) {
+      System.out.println("  " + what + ": " + e.getMessage());
+      return;
+    }
+    throw new AssertionError(what + " not detected");
+  }
+}
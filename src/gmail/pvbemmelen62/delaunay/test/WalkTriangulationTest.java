@@ -0,0 +1,45 @@
+package gmail.pvbemmelen62.delaunay.test;
+
+import java.util.*;
+
+import gmail.pvbemmelen62.delaunay.*;
+import gmail.pvbemmelen62.delaunay.DelaunayTriangulation.*;
+import gmail.pvbemmelen62.delaunay.dcel.Dcel.*;
+
+/**
+ * Checks that LocationMode.WALK creates the same triangles as
+ * LocationMode.HISTORY_DAG, and reports the time taken by both.
+ */
+public class WalkTriangulationTest {
+
+  public static void main(String[] args) {
+    int numPoints = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    Long seed = 0L;
+    Random random = new Random(seed);
+    Point[] points = Points.randomPoints(numPoints, random);
+
+    long t0 = System.nanoTime();
+    DelaunayTriangulation dtDag = new DelaunayTriangulation(points,
+        LocationMode.HISTORY_DAG);
+    long t1 = System.nanoTime();
+    DelaunayTriangulation dtWalk = new DelaunayTriangulation(points,
+        LocationMode.WALK);
+    long t2 = System.nanoTime();
+    TreeSet<Face> facesDag = dtDag.getDcel().getFaces();
+    TreeSet<Face> facesWalk = dtWalk.getDcel().getFaces();
+    Util.myAssert(facesDag.size()==facesWalk.size());
+    Iterator<Face> iter = facesWalk.iterator();
+    for(Face f : facesDag) {
+      Util.myAssert(f.compareTo(iter.next())==0);
+    }
+    System.out.println("numPoints: " + numPoints);
+    System.out.println("HISTORY_DAG ms: " + (t1-t0)/1000000);
+    System.out.println("WALK        ms: " + (t2-t1)/1000000);
+
+    // Grid points lie on edges of the triangulation, and are cocircular.
+    points = Points.gridPoints(numPoints, random);
+    DelaunayTriangulation dtGrid = new DelaunayTriangulation(points,
+        LocationMode.WALK);
+    Util.myAssert(dtGrid.getDcel().getFaces().size()==2*numPoints);
+  }
+}